@@ -21,5 +21,44 @@ public final class AppConfig {
 
     // DB config
     public static final String DB_URL = "jdbc:sqlite:bootsdo.db";
-    public static final int SCHEMA_VERSION = 2; // Version 2: customer_id -> customer_type, removed customer table
+    public static final int SCHEMA_VERSION = 8; // Version 8: daily_sales rollup (see Migrations for v2-v7)
+    public static final int MIGRATION_CHUNK_SIZE = Integer.getInteger("bootsdo.db.migrationChunkSize", 5_000);
+    // Ids reserved per id_sequence round trip; unused ids in a block are skipped after a restart
+    public static final int ID_BLOCK_SIZE = Integer.getInteger("bootsdo.db.idBlockSize", 20);
+
+    // Connection pool sizing (override with -Dbootsdo.db.poolSize=... when tuning checkout load)
+    public static final int DB_POOL_MAX_SIZE = Integer.getInteger("bootsdo.db.poolSize", 8);
+    public static final long DB_POOL_IDLE_TIMEOUT_MS = 300_000L; // close connections idle for 5 minutes
+    public static final long DB_POOL_BORROW_TIMEOUT_MS = 10_000L;
+    public static final int DB_STATEMENT_CACHE_SIZE = Integer.getInteger("bootsdo.db.statementCacheSize", 32);
+
+    // SQLite pragma preset applied to every connection: durable (default), throughput or report-node
+    public static final String DB_PRAGMA_PROFILE = System.getProperty("bootsdo.db.profile", "durable");
+
+    // Product catalog cache in front of the JDBC product repository
+    public static final int PRODUCT_CACHE_SIZE = Integer.getInteger("bootsdo.cache.productSize", 512);
+    public static final long PRODUCT_CACHE_TTL_MS = Long.getLong("bootsdo.cache.productTtlMs", 60_000L);
+
+    // Date-range report results kept by ReportService (0 disables); the TTL bounds how long a result is reused,
+    // but only reloads that read the database pick up sales made on other terminals
+    public static final int REPORT_CACHE_SIZE = Integer.getInteger("bootsdo.cache.reportSize", 64);
+    public static final long REPORT_CACHE_TTL_MS = Long.getLong("bootsdo.cache.reportTtlMs", 60_000L);
+
+    // Opt in to mirroring transactions into SalesColumnStore so report group-bys scan primitive columns. It is
+    // filled in the background after startup and rebuilt from the database every refresh interval (0 = never)
+    public static final boolean REPORT_COLUMNAR = Boolean.getBoolean("bootsdo.report.columnar");
+    public static final long REPORT_COLUMNAR_REFRESH_MS = Long.getLong("bootsdo.report.columnarRefreshMs", 300_000L);
+
+    // Column store scans larger than the threshold are split across the fork/join pool, at most partitionSize
+    // rows per task
+    public static final int REPORT_PARALLEL_THRESHOLD = Integer.getInteger("bootsdo.report.parallelThreshold", 50_000);
+    public static final int REPORT_PARTITION_SIZE = Integer.getInteger("bootsdo.report.partitionSize", 8_192);
+
+    // Most members returned by one name search
+    public static final int MEMBER_SEARCH_LIMIT = Integer.getInteger("bootsdo.member.searchLimit", 50);
+
+    // Group commit for checkout: queue concurrent order saves and commit them together (off by default)
+    public static final boolean GROUP_COMMIT_ENABLED = Boolean.getBoolean("bootsdo.db.groupCommit");
+    public static final long GROUP_COMMIT_MAX_DELAY_MS = Long.getLong("bootsdo.db.groupCommitDelayMs", 5L);
+    public static final int GROUP_COMMIT_MAX_BATCH = Integer.getInteger("bootsdo.db.groupCommitBatch", 64);
 }
@@ -0,0 +1,479 @@
+package oopassignment.config;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Small bounded pool of JDBC connections. Borrowed connections are proxies whose {@code close()} hands the
+ * physical connection back to the pool instead of closing it; statements opened through the proxy are closed
+ * and any open transaction is rolled back before the connection is reused.
+ * <p>
+ * Each physical connection also keeps an LRU cache of prepared statements keyed by SQL text, so
+ * {@code prepareStatement(sql)} for a hot query only parses it once per connection. Closing a cached statement
+ * closes its result set and clears its parameters rather than finalizing it. Only the one-argument overload is
+ * cached: SQL built per call (e.g. an IN list sized to its input) should use
+ * {@code prepareStatement(sql, TYPE_FORWARD_ONLY, CONCUR_READ_ONLY)} so it does not push hot statements out.
+ */
+public class ConnectionPool {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ConnectionPool.class);
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    /**
+     * Per-connection setup hook, run once when a physical connection is opened.
+     */
+    public interface ConnectionInitializer {
+        void initialize(Connection connection) throws SQLException;
+    }
+
+    private final String url;
+    private final int maxSize;
+    private final long idleTimeoutMs;
+    private final long borrowTimeoutMs;
+    private final int statementCacheSize;
+    private final ConnectionInitializer initializer;
+
+    private final Object lock = new Object();
+    private final Deque<PhysicalConnection> idle = new ArrayDeque<>();
+    private int openCount;
+    private boolean closed;
+
+    private long hits;
+    private long misses;
+    private long waits;
+    private long totalWaitNanos;
+    private long timeouts;
+    private long evictions;
+    private final LongAdder statementHits = new LongAdder();
+    private final LongAdder statementMisses = new LongAdder();
+
+    public ConnectionPool(String url, int maxSize, long idleTimeoutMs, long borrowTimeoutMs,
+                          ConnectionInitializer initializer) {
+        this(url, maxSize, idleTimeoutMs, borrowTimeoutMs, 0, initializer);
+    }
+
+    /**
+     * @param statementCacheSize prepared statements kept per physical connection; 0 disables caching
+     */
+    public ConnectionPool(String url, int maxSize, long idleTimeoutMs, long borrowTimeoutMs,
+                          int statementCacheSize, ConnectionInitializer initializer) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Pool size must be positive");
+        }
+        this.url = url;
+        this.maxSize = maxSize;
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.borrowTimeoutMs = borrowTimeoutMs;
+        this.statementCacheSize = Math.max(0, statementCacheSize);
+        this.initializer = initializer;
+    }
+
+    /**
+     * Borrow a connection, reusing a validated idle one when possible. Blocks up to the borrow timeout when
+     * every connection is in use.
+     */
+    public Connection borrow() throws SQLException {
+        while (true) {
+            PhysicalConnection candidate = null;
+            boolean openNew = false;
+            synchronized (lock) {
+                if (closed) {
+                    throw new SQLException("Connection pool is closed");
+                }
+                evictExpired(System.currentTimeMillis());
+                if (!idle.isEmpty()) {
+                    candidate = idle.pollFirst();
+                } else if (openCount < maxSize) {
+                    openCount++;
+                    openNew = true;
+                } else {
+                    awaitRelease();
+                    continue;
+                }
+            }
+            if (openNew) {
+                return wrap(openPhysical(), false);
+            }
+            if (isValid(candidate.connection)) {
+                return wrap(candidate, true);
+            }
+            discard(candidate);
+        }
+    }
+
+    public PoolStats getStats() {
+        synchronized (lock) {
+            return new PoolStats(hits, misses, waits, totalWaitNanos, timeouts, evictions,
+                    openCount - idle.size(), idle.size(), maxSize,
+                    statementHits.sum(), statementMisses.sum());
+        }
+    }
+
+    /**
+     * Close idle connections and refuse further borrows. Connections still on loan are closed when returned.
+     */
+    public void close() {
+        List<PhysicalConnection> toClose = new ArrayList<>();
+        synchronized (lock) {
+            closed = true;
+            toClose.addAll(idle);
+            openCount -= idle.size();
+            idle.clear();
+            lock.notifyAll();
+        }
+        for (PhysicalConnection conn : toClose) {
+            conn.closeQuietly();
+        }
+    }
+
+    private void awaitRelease() throws SQLException {
+        // caller holds lock
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(borrowTimeoutMs);
+        waits++;
+        try {
+            while (idle.isEmpty() && openCount >= maxSize && !closed) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    timeouts++;
+                    throw new SQLException("Timed out waiting " + borrowTimeoutMs + "ms for a pooled connection");
+                }
+                TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a pooled connection", e);
+        } finally {
+            totalWaitNanos += System.nanoTime() - start;
+        }
+    }
+
+    private PhysicalConnection openPhysical() throws SQLException {
+        Connection conn = null;
+        try {
+            conn = DriverManager.getConnection(url);
+            if (initializer != null) {
+                initializer.initialize(conn);
+            }
+            return new PhysicalConnection(conn);
+        } catch (SQLException | RuntimeException e) {
+            if (conn != null) {
+                closeQuietly(conn);
+            }
+            synchronized (lock) {
+                openCount--;
+                lock.notifyAll();
+            }
+            throw e;
+        }
+    }
+
+    private Connection wrap(PhysicalConnection physical, boolean reused) {
+        synchronized (lock) {
+            if (reused) {
+                hits++;
+            } else {
+                misses++;
+            }
+        }
+        PooledConnection handler = new PooledConnection(physical);
+        Connection proxy = (Connection) Proxy.newProxyInstance(
+                ConnectionPool.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                handler);
+        handler.proxy = proxy;
+        return proxy;
+    }
+
+    private void release(PhysicalConnection physical, boolean broken) {
+        boolean closeNow;
+        synchronized (lock) {
+            closeNow = broken || closed;
+            if (closeNow) {
+                openCount--;
+            } else {
+                physical.idleSince = System.currentTimeMillis();
+                idle.addFirst(physical);
+            }
+            lock.notifyAll();
+        }
+        if (closeNow) {
+            physical.closeQuietly();
+        }
+    }
+
+    private void evictExpired(long now) {
+        // caller holds lock; most recently used connections sit at the head, so stale ones collect at the tail
+        Iterator<PhysicalConnection> it = idle.descendingIterator();
+        while (it.hasNext()) {
+            PhysicalConnection entry = it.next();
+            if (now - entry.idleSince < idleTimeoutMs) {
+                break;
+            }
+            it.remove();
+            openCount--;
+            evictions++;
+            entry.closeQuietly();
+        }
+    }
+
+    private boolean isValid(Connection conn) {
+        try {
+            return !conn.isClosed() && conn.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void discard(PhysicalConnection conn) {
+        LOG.warn("Discarding invalid pooled connection");
+        synchronized (lock) {
+            openCount--;
+            evictions++;
+            lock.notifyAll();
+        }
+        conn.closeQuietly();
+    }
+
+    private static void closeQuietly(AutoCloseable resource) {
+        try {
+            resource.close();
+        } catch (Exception e) {
+            LOG.warn("Failed to close pooled JDBC resource", e);
+        }
+    }
+
+    private static Object invokeDelegate(Method method, Object target, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * A physical connection plus its prepared statement cache. Only touched by the thread that borrowed it.
+     */
+    private final class PhysicalConnection {
+        private final Connection connection;
+        private final Map<String, CachedStatement> statements;
+        private long idleSince;
+
+        private PhysicalConnection(Connection connection) {
+            this.connection = connection;
+            this.statements = new LinkedHashMap<>(16, 0.75f, true);
+        }
+
+        /**
+         * Closes the least recently used statement not currently leased. Returns false when every cached
+         * statement is on loan, in which case nothing may be added without growing past the bound.
+         */
+        private boolean evictIdleStatement() {
+            for (Iterator<CachedStatement> it = statements.values().iterator(); it.hasNext(); ) {
+                CachedStatement cached = it.next();
+                if (!cached.inUse) {
+                    it.remove();
+                    ConnectionPool.closeQuietly(cached.statement);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void closeQuietly() {
+            for (CachedStatement cached : statements.values()) {
+                ConnectionPool.closeQuietly(cached.statement);
+            }
+            statements.clear();
+            ConnectionPool.closeQuietly(connection);
+        }
+    }
+
+    private static final class CachedStatement {
+        private final PreparedStatement statement;
+        private boolean inUse;
+
+        private CachedStatement(PreparedStatement statement) {
+            this.statement = statement;
+        }
+    }
+
+    /**
+     * Proxy handler standing in for a borrowed connection until it is closed.
+     */
+    private final class PooledConnection implements InvocationHandler {
+        private final PhysicalConnection physical;
+        private final List<AutoCloseable> openStatements = new ArrayList<>();
+        private Connection proxy;
+        private boolean returned;
+
+        private PooledConnection(PhysicalConnection physical) {
+            this.physical = physical;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    returnToPool();
+                    return null;
+                case "isClosed":
+                    return returned || physical.connection.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled" + physical.connection;
+                default:
+                    break;
+            }
+            if (returned) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            if ("prepareStatement".equals(method.getName()) && args.length == 1 && statementCacheSize > 0) {
+                PreparedStatement leased = leaseStatement((String) args[0]);
+                if (leased != null) {
+                    openStatements.add(leased);
+                    return leased;
+                }
+            }
+            Object result = invokeDelegate(method, physical.connection, args);
+            if (result instanceof Statement) {
+                openStatements.add((Statement) result);
+            }
+            return result;
+        }
+
+        private PreparedStatement leaseStatement(String sql) throws SQLException {
+            CachedStatement cached = physical.statements.get(sql);
+            if (cached != null && cached.inUse) {
+                // same SQL already open on this connection (e.g. nested iteration); fall back to an uncached one
+                return null;
+            }
+            if (cached != null) {
+                statementHits.increment();
+            } else {
+                if (physical.statements.size() >= statementCacheSize && !physical.evictIdleStatement()) {
+                    // every cached statement is leased; stay within the bound and hand out an uncached one
+                    return null;
+                }
+                statementMisses.increment();
+                cached = new CachedStatement(physical.connection.prepareStatement(sql));
+                physical.statements.put(sql, cached);
+            }
+            cached.inUse = true;
+            return (PreparedStatement) Proxy.newProxyInstance(
+                    ConnectionPool.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class},
+                    new StatementLease(cached, proxy));
+        }
+
+        private void returnToPool() {
+            if (returned) {
+                return;
+            }
+            returned = true;
+            boolean broken = false;
+            for (AutoCloseable stmt : openStatements) {
+                try {
+                    stmt.close();
+                } catch (Exception e) {
+                    broken = true;
+                }
+            }
+            openStatements.clear();
+            try {
+                if (!physical.connection.getAutoCommit()) {
+                    physical.connection.rollback();
+                    physical.connection.setAutoCommit(true);
+                }
+            } catch (SQLException e) {
+                LOG.warn("Failed to reset pooled connection state", e);
+                broken = true;
+            }
+            release(physical, broken);
+        }
+    }
+
+    /**
+     * Proxy handler for one checkout of a cached prepared statement. Closing the lease closes the current result
+     * set and resets parameters so the underlying statement can be handed out again.
+     */
+    private static final class StatementLease implements InvocationHandler {
+        private final CachedStatement cached;
+        private final Connection connection;
+        private ResultSet currentResult;
+        private boolean closed;
+
+        private StatementLease(CachedStatement cached, Connection connection) {
+            this.cached = cached;
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    release();
+                    return null;
+                case "isClosed":
+                    return closed || cached.statement.isClosed();
+                case "getConnection":
+                    return connection;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Cached" + cached.statement;
+                default:
+                    break;
+            }
+            if (closed) {
+                throw new SQLException("Statement is closed");
+            }
+            Object result = invokeDelegate(method, cached.statement, args);
+            if (result instanceof ResultSet) {
+                currentResult = (ResultSet) result;
+            }
+            return result;
+        }
+
+        private void release() throws SQLException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                if (currentResult != null) {
+                    currentResult.close();
+                    currentResult = null;
+                }
+                cached.statement.clearParameters();
+                cached.statement.clearBatch();
+            } finally {
+                cached.inUse = false;
+            }
+        }
+    }
+}
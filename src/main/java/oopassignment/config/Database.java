@@ -2,10 +2,10 @@ package oopassignment.config;
 
 import java.sql.Connection;
 import java.sql.DriverManager;
-import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.concurrent.CompletableFuture;
 import oopassignment.util.PasswordHasher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -13,12 +13,20 @@ import org.slf4j.LoggerFactory;
 /**
  * Minimal JDBC bootstrapper. Tries to open the configured DB_URL and creates tables if they don't exist.
  * Falls back silently when no JDBC driver is present so the in-memory repositories can still run.
+ * Connections handed out by {@link #getConnection()} are borrowed from a shared {@link ConnectionPool};
+ * closing them returns them to the pool.
+ * <p>
+ * Bootstrap runs on a background thread as soon as the class is loaded. A database whose
+ * {@code PRAGMA user_version} already equals {@link AppConfig#SCHEMA_VERSION} skips DDL and seed checks.
  */
 public final class Database {
 
     private static final Logger LOG = LoggerFactory.getLogger(Database.class);
     private static final PasswordHasher HASHER = new PasswordHasher();
-    private static boolean available;
+    private static volatile boolean available;
+    private static ConnectionPool pool;
+    private static final PragmaProfile PRAGMA_PROFILE = resolvePragmaProfile();
+    private static final CompletableFuture<Boolean> BOOTSTRAP;
 
     static {
         boolean driverLoaded = true;
@@ -30,39 +38,136 @@ public final class Database {
         }
 
         if (driverLoaded) {
-            try (Connection conn = DriverManager.getConnection(AppConfig.DB_URL)) {
-                available = true;
-                conn.setAutoCommit(false);
-                try {
-                    ensureSchemaVersion(conn);
-                    createTables(conn);
-                    seedData(conn);
-                    conn.commit();
-                } catch (SQLException e) {
-                    conn.rollback();
-                    throw e;
-                }
-            } catch (SQLException e) {
-                available = false;
-                LOG.error("DB unavailable, falling back to in-memory repositories", e);
-            }
+            pool = new ConnectionPool(
+                    AppConfig.DB_URL,
+                    AppConfig.DB_POOL_MAX_SIZE,
+                    AppConfig.DB_POOL_IDLE_TIMEOUT_MS,
+                    AppConfig.DB_POOL_BORROW_TIMEOUT_MS,
+                    AppConfig.DB_STATEMENT_CACHE_SIZE,
+                    Database::configureConnection);
+            Runtime.getRuntime().addShutdownHook(new Thread(pool::close, "bootsdo-db-pool-shutdown"));
+            // Schema work runs off the caller's thread so the console can draw while the DB warms up
+            BOOTSTRAP = CompletableFuture.supplyAsync(Database::bootstrap, runnable -> {
+                Thread thread = new Thread(runnable, "bootsdo-db-bootstrap");
+                thread.setDaemon(true);
+                thread.start();
+            });
         } else {
             available = false;
+            BOOTSTRAP = CompletableFuture.completedFuture(false);
         }
     }
 
     private Database() {
     }
 
+    /**
+     * Starts (if not already running) the background schema bootstrap. Call early at startup; the first
+     * {@link #isAvailable()} or {@link #getConnection()} waits for it to finish.
+     */
+    public static CompletableFuture<Boolean> bootstrapAsync() {
+        return BOOTSTRAP;
+    }
+
     public static boolean isAvailable() {
+        awaitBootstrap();
         return available;
     }
 
     public static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(AppConfig.DB_URL);
+        awaitBootstrap();
+        if (pool == null) {
+            return DriverManager.getConnection(AppConfig.DB_URL);
+        }
+        return pool.borrow();
+    }
+
+    /**
+     * Pool hit/miss, wait-time and statement cache counters; all zero when the database is unavailable.
+     */
+    public static PoolStats getPoolStats() {
+        if (pool == null) {
+            return new PoolStats(0, 0, 0, 0, 0, 0, 0, 0, AppConfig.DB_POOL_MAX_SIZE);
+        }
+        return pool.getStats();
+    }
+
+    /**
+     * Recompute the daily_sales rollup from transaction_header in one transaction, e.g. after rows were edited
+     * outside the application. Run from the command line with {@code BootsDo --rebuild-daily-sales}.
+     *
+     * @return rollup rows written
+     */
+    public static int rebuildDailySales() throws SQLException {
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                int rows = Migrations.DailySalesRollupMigration.rebuild(conn);
+                conn.commit();
+                LOG.info("Rebuilt daily_sales: {} rows", rows);
+                return rows;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    private static void awaitBootstrap() {
+        BOOTSTRAP.join();
+    }
+
+    private static boolean bootstrap() {
+        try (Connection conn = pool.borrow()) {
+            available = true;
+            int userVersion = getUserVersion(conn);
+            if (userVersion == AppConfig.SCHEMA_VERSION) {
+                // Fast path: the file was stamped by a completed bootstrap of this schema version
+                LOG.info("Schema version {} already applied, skipping DDL and seed checks", userVersion);
+                return true;
+            }
+            conn.setAutoCommit(false);
+            try {
+                // Tables first (no-ops on existing files), then migrations, which commit as they go
+                ensureSchemaVersionTable(conn);
+                createTables(conn);
+                conn.commit();
+                migrateToCurrentVersion(conn);
+                seedData(conn);
+                if (userVersion < AppConfig.SCHEMA_VERSION) {
+                    setUserVersion(conn, AppConfig.SCHEMA_VERSION);
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            available = false;
+            LOG.error("DB unavailable, falling back to in-memory repositories", e);
+        }
+        return available;
+    }
+
+    public static PragmaProfile getPragmaProfile() {
+        return PRAGMA_PROFILE;
     }
 
-    private static void ensureSchemaVersion(Connection conn) throws SQLException {
+    private static void configureConnection(Connection conn) throws SQLException {
+        PRAGMA_PROFILE.apply(conn);
+    }
+
+    private static PragmaProfile resolvePragmaProfile() {
+        PragmaProfile profile = PragmaProfile.forName(AppConfig.DB_PRAGMA_PROFILE);
+        if (profile == null) {
+            LOG.warn("Unknown DB pragma profile '{}', using {}", AppConfig.DB_PRAGMA_PROFILE, PragmaProfile.DURABLE);
+            return PragmaProfile.DURABLE;
+        }
+        LOG.info("Using DB pragma profile {}", profile);
+        return profile;
+    }
+
+    private static void ensureSchemaVersionTable(Connection conn) throws SQLException {
         try (Statement stmt = conn.createStatement()) {
             stmt.executeUpdate("""
                     CREATE TABLE IF NOT EXISTS schema_version(
@@ -71,84 +176,18 @@ public final class Database {
                     )
                     """);
         }
+    }
+
+    private static void migrateToCurrentVersion(Connection conn) throws SQLException {
         int currentVersion = getSchemaVersion(conn);
         if (currentVersion < AppConfig.SCHEMA_VERSION) {
-            migrateSchema(conn, currentVersion);
-            try (PreparedStatement ps = conn.prepareStatement(
-                    "INSERT OR REPLACE INTO schema_version(version, applied_at) VALUES(?, datetime('now'))")) {
-                ps.setInt(1, AppConfig.SCHEMA_VERSION);
-                ps.executeUpdate();
-            }
+            MigrationRunner runner = new MigrationRunner(Migrations.all(), AppConfig.MIGRATION_CHUNK_SIZE);
+            // The runner records each applied version in schema_version
+            runner.migrate(conn, currentVersion, AppConfig.SCHEMA_VERSION);
             LOG.info("Schema version set to {}", AppConfig.SCHEMA_VERSION);
         }
     }
     
-    private static void migrateSchema(Connection conn, int fromVersion) throws SQLException {
-        try (Statement stmt = conn.createStatement()) {
-            // Migration: Change customer_id to customer_type in transaction_header
-            // Check if customer_id column exists
-            try (ResultSet rs = stmt.executeQuery("PRAGMA table_info(transaction_header)")) {
-                boolean hasCustomerId = false;
-                boolean hasCustomerType = false;
-                while (rs.next()) {
-                    String colName = rs.getString("name");
-                    if ("customer_id".equals(colName)) {
-                        hasCustomerId = true;
-                    }
-                    if ("customer_type".equals(colName)) {
-                        hasCustomerType = true;
-                    }
-                }
-                
-                if (hasCustomerId && !hasCustomerType) {
-                    // Migrate: Add customer_type column, populate it, then drop customer_id
-                    LOG.info("Migrating transaction_header: customer_id -> customer_type");
-                    stmt.executeUpdate("ALTER TABLE transaction_header ADD COLUMN customer_type TEXT");
-                    // Update existing records: if member_id is not null, set to MEMBER, else WALK-IN
-                    stmt.executeUpdate("""
-                        UPDATE transaction_header 
-                        SET customer_type = CASE 
-                            WHEN member_id IS NOT NULL AND member_id != '' THEN 'MEMBER' 
-                            ELSE 'WALK-IN' 
-                        END
-                        WHERE customer_type IS NULL
-                        """);
-                    // Drop the old customer_id column (SQLite doesn't support DROP COLUMN directly)
-                    // We'll create a new table and copy data
-                    stmt.executeUpdate("""
-                        CREATE TABLE transaction_header_new(
-                            transaction_id TEXT PRIMARY KEY,
-                            datetime TEXT NOT NULL,
-                            member_id TEXT,
-                            customer_type TEXT NOT NULL,
-                            total_amount REAL NOT NULL,
-                            payment_method TEXT NOT NULL
-                        )
-                        """);
-                    stmt.executeUpdate("""
-                        INSERT INTO transaction_header_new 
-                        SELECT transaction_id, datetime, member_id, 
-                               CASE WHEN member_id IS NOT NULL AND member_id != '' THEN 'MEMBER' ELSE 'WALK-IN' END,
-                               total_amount, payment_method
-                        FROM transaction_header
-                        """);
-                    stmt.executeUpdate("DROP TABLE transaction_header");
-                    stmt.executeUpdate("ALTER TABLE transaction_header_new RENAME TO transaction_header");
-                    LOG.info("Migration completed: customer_id -> customer_type");
-                }
-            }
-            
-            // Drop customer table if it exists (no longer needed)
-            try (ResultSet rs = stmt.executeQuery(
-                    "SELECT name FROM sqlite_master WHERE type='table' AND name='customer'")) {
-                if (rs.next()) {
-                    LOG.info("Dropping unused customer table");
-                    stmt.executeUpdate("DROP TABLE customer");
-                }
-            }
-        }
-    }
-
     private static void createTables(Connection conn) throws SQLException {
         try (Statement stmt = conn.createStatement()) {
             stmt.executeUpdate("""
@@ -249,6 +288,10 @@ public final class Database {
                     INSERT INTO member(member_id, name, ic_number, credit_balance, join_date, status)
                     VALUES ('MB001','Alex Member','990101010101',100.0,date('now'),'ACTIVE')
                     """);
+            // Seeding runs after migrations, so the search index built by version 7 has to be told as well
+            if (Migrations.tableExists(conn, "member_fts")) {
+                stmt.executeUpdate("INSERT OR REPLACE INTO member_fts(rowid, name) SELECT rowid, name FROM member");
+            }
         }
     }
 
@@ -286,6 +329,19 @@ public final class Database {
         }
     }
 
+    private static int getUserVersion(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA user_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private static void setUserVersion(Connection conn, int version) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("PRAGMA user_version = " + version);
+        }
+    }
+
     private static int getSchemaVersion(Connection conn) throws SQLException {
         try (Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(version), 0) AS v FROM schema_version")) {
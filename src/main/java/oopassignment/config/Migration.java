@@ -0,0 +1,17 @@
+package oopassignment.config;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * One versioned schema change. Steps must be safe to re-run after an interruption: the runner only records the
+ * version once {@link #apply} returns, and bulk row copies should go through
+ * {@link MigrationRunner#moveRowsInChunks} so they resume from their last checkpoint.
+ */
+public interface Migration {
+    int getVersion();
+
+    String getDescription();
+
+    void apply(Connection conn, MigrationRunner runner) throws SQLException;
+}
@@ -0,0 +1,178 @@
+package oopassignment.config;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Applies pending {@link Migration}s in version order. Each migration commits on its own and is recorded in
+ * {@code schema_version} when it finishes; row copies commit per chunk and record their progress in
+ * {@code migration_checkpoint}, so an interrupted upgrade picks up where it stopped on the next start.
+ * Expects a connection with auto-commit disabled.
+ */
+public class MigrationRunner {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MigrationRunner.class);
+
+    private final List<Migration> migrations;
+    private final int chunkSize;
+
+    public MigrationRunner(List<Migration> migrations, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        this.migrations = new ArrayList<>(migrations);
+        this.migrations.sort(Comparator.comparingInt(Migration::getVersion));
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Run every migration with {@code fromVersion < version <= toVersion}.
+     *
+     * @return the number of migrations applied
+     */
+    public int migrate(Connection conn, int fromVersion, int toVersion) throws SQLException {
+        ensureCheckpointTable(conn);
+        int applied = 0;
+        for (Migration migration : migrations) {
+            int version = migration.getVersion();
+            if (version <= fromVersion || version > toVersion) {
+                continue;
+            }
+            LOG.info("Applying migration {}: {}", version, migration.getDescription());
+            try {
+                migration.apply(conn, this);
+                recordVersion(conn, version);
+                clearCheckpoints(conn, version);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                LOG.error("Migration {} failed; completed chunks are kept and will resume on next start", version, e);
+                throw e;
+            }
+            applied++;
+        }
+        return applied;
+    }
+
+    /**
+     * Move rows from {@code source} into {@code target} in rowid order, at most {@code chunkSize} rows per
+     * transaction. Each chunk inserts, deletes the moved source rows and advances the checkpoint atomically, so
+     * the copy never holds the write lock for long, never needs both full tables on disk, and resumes cleanly.
+     *
+     * @param targetColumns     column list of the target table, e.g. {@code "a, b, c"}
+     * @param selectExpressions matching expressions evaluated against the source row
+     * @return rows moved by this call
+     */
+    public long moveRowsInChunks(Connection conn, int version, String step, String source, String target,
+                                 String targetColumns, String selectExpressions) throws SQLException {
+        long lastRowId = readCheckpoint(conn, version, step);
+        long moved = 0;
+        String boundSql = "SELECT MAX(rowid) FROM (SELECT rowid FROM " + source
+                + " WHERE rowid > ? ORDER BY rowid LIMIT ?)";
+        String copySql = "INSERT INTO " + target + "(" + targetColumns + ") SELECT " + selectExpressions
+                + " FROM " + source + " WHERE rowid > ? AND rowid <= ? ORDER BY rowid";
+        String deleteSql = "DELETE FROM " + source + " WHERE rowid > ? AND rowid <= ?";
+        while (true) {
+            long upper;
+            try (PreparedStatement ps = conn.prepareStatement(boundSql)) {
+                ps.setLong(1, lastRowId);
+                ps.setInt(2, chunkSize);
+                try (ResultSet rs = ps.executeQuery()) {
+                    upper = rs.next() ? rs.getLong(1) : 0;
+                    if (rs.wasNull()) {
+                        break;
+                    }
+                }
+            }
+            int rows;
+            try (PreparedStatement copy = conn.prepareStatement(copySql);
+                 PreparedStatement delete = conn.prepareStatement(deleteSql)) {
+                copy.setLong(1, lastRowId);
+                copy.setLong(2, upper);
+                rows = copy.executeUpdate();
+                delete.setLong(1, lastRowId);
+                delete.setLong(2, upper);
+                delete.executeUpdate();
+            }
+            writeCheckpoint(conn, version, step, upper);
+            conn.commit();
+            lastRowId = upper;
+            moved += rows;
+            LOG.info("Migration {} [{}]: moved {} rows so far (checkpoint rowid {})", version, step, moved, upper);
+        }
+        return moved;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    private void ensureCheckpointTable(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("""
+                    CREATE TABLE IF NOT EXISTS migration_checkpoint(
+                        version INTEGER NOT NULL,
+                        step TEXT NOT NULL,
+                        last_rowid INTEGER NOT NULL,
+                        updated_at TEXT NOT NULL,
+                        PRIMARY KEY(version, step)
+                    )
+                    """);
+        }
+        conn.commit();
+    }
+
+    private long readCheckpoint(Connection conn, int version, String step) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(
+                "SELECT last_rowid FROM migration_checkpoint WHERE version = ? AND step = ?")) {
+            ps.setInt(1, version);
+            ps.setString(2, step);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    long last = rs.getLong(1);
+                    LOG.info("Resuming migration {} [{}] after rowid {}", version, step, last);
+                    return last;
+                }
+            }
+        }
+        return 0;
+    }
+
+    private void writeCheckpoint(Connection conn, int version, String step, long lastRowId) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("""
+                INSERT INTO migration_checkpoint(version, step, last_rowid, updated_at)
+                VALUES(?,?,?,datetime('now'))
+                ON CONFLICT(version, step) DO UPDATE SET
+                    last_rowid=excluded.last_rowid,
+                    updated_at=excluded.updated_at
+                """)) {
+            ps.setInt(1, version);
+            ps.setString(2, step);
+            ps.setLong(3, lastRowId);
+            ps.executeUpdate();
+        }
+    }
+
+    private void clearCheckpoints(Connection conn, int version) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("DELETE FROM migration_checkpoint WHERE version = ?")) {
+            ps.setInt(1, version);
+            ps.executeUpdate();
+        }
+    }
+
+    private void recordVersion(Connection conn, int version) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(
+                "INSERT OR REPLACE INTO schema_version(version, applied_at) VALUES(?, datetime('now'))")) {
+            ps.setInt(1, version);
+            ps.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,328 @@
+package oopassignment.config;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Registry of schema migrations, in the order they were introduced.
+ */
+public final class Migrations {
+
+    private static final Logger LOG = LoggerFactory.getLogger(Migrations.class);
+
+    private Migrations() {
+    }
+
+    public static List<Migration> all() {
+        return List.of(
+                new CustomerTypeMigration(),
+                new LookupIndexMigration(),
+                new IdSequenceMigration(),
+                new SalesSummaryIndexMigration(),
+                new MemberKeysetIndexMigration(),
+                new MemberSearchMigration(),
+                new DailySalesRollupMigration()
+        );
+    }
+
+    static boolean tableExists(Connection conn, String table) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(
+                     "SELECT name FROM sqlite_master WHERE type='table' AND name='" + table + "'")) {
+            return rs.next();
+        }
+    }
+
+    static boolean columnExists(Connection conn, String table, String column) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA table_info(" + table + ")")) {
+            while (rs.next()) {
+                if (column.equals(rs.getString("name"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Version 2: transaction_header.customer_id replaced by customer_type, derived from member_id, and the
+     * customer table dropped. Rows are moved into a rebuilt table in chunks instead of one INSERT ... SELECT.
+     */
+    static final class CustomerTypeMigration implements Migration {
+
+        @Override
+        public int getVersion() {
+            return 2;
+        }
+
+        @Override
+        public String getDescription() {
+            return "transaction_header customer_id -> customer_type";
+        }
+
+        @Override
+        public void apply(Connection conn, MigrationRunner runner) throws SQLException {
+            boolean oldTable = tableExists(conn, "transaction_header")
+                    && columnExists(conn, "transaction_header", "customer_id");
+            boolean newTable = tableExists(conn, "transaction_header_new");
+            if (oldTable || newTable) {
+                rebuildTransactionHeader(conn, runner, oldTable);
+            }
+            if (tableExists(conn, "customer")) {
+                LOG.info("Dropping unused customer table");
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.executeUpdate("DROP TABLE customer");
+                }
+            }
+        }
+
+        private void rebuildTransactionHeader(Connection conn, MigrationRunner runner, boolean oldTable)
+                throws SQLException {
+            if (oldTable) {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.executeUpdate("""
+                            CREATE TABLE IF NOT EXISTS transaction_header_new(
+                                transaction_id TEXT PRIMARY KEY,
+                                datetime TEXT NOT NULL,
+                                member_id TEXT,
+                                customer_type TEXT NOT NULL,
+                                total_amount REAL NOT NULL,
+                                payment_method TEXT NOT NULL
+                            )
+                            """);
+                }
+                conn.commit();
+                long moved = runner.moveRowsInChunks(conn, getVersion(), "copy_transaction_header",
+                        "transaction_header", "transaction_header_new",
+                        "transaction_id, datetime, member_id, customer_type, total_amount, payment_method",
+                        """
+                        transaction_id, datetime, member_id,
+                        CASE WHEN member_id IS NOT NULL AND member_id != '' THEN 'MEMBER' ELSE 'WALK-IN' END,
+                        total_amount, payment_method""");
+                LOG.info("Moved {} transaction headers into rebuilt table", moved);
+            }
+            // Swap in one transaction; rerunning after a crash here finds only the _new table and finishes the rename
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("DROP TABLE IF EXISTS transaction_header");
+                stmt.executeUpdate("ALTER TABLE transaction_header_new RENAME TO transaction_header");
+            }
+            LOG.info("Migration completed: customer_id -> customer_type");
+        }
+    }
+
+    /**
+     * Version 3: indexes for the hot lookups. Stock is indexed with NOCASE collation so the case-insensitive
+     * product/size lookups can seek instead of scanning, and the index carries quantity so they never touch
+     * the table.
+     */
+    static final class LookupIndexMigration implements Migration {
+
+        @Override
+        public int getVersion() {
+            return 3;
+        }
+
+        @Override
+        public String getDescription() {
+            return "lookup indexes on stock and transaction_header";
+        }
+
+        @Override
+        public void apply(Connection conn, MigrationRunner runner) throws SQLException {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("""
+                        CREATE INDEX IF NOT EXISTS idx_stock_product_size_nocase
+                        ON stock(product_id COLLATE NOCASE, size COLLATE NOCASE, quantity)
+                        """);
+                stmt.executeUpdate("""
+                        CREATE INDEX IF NOT EXISTS idx_transaction_header_datetime
+                        ON transaction_header(datetime)
+                        """);
+                stmt.executeUpdate("""
+                        CREATE INDEX IF NOT EXISTS idx_transaction_header_member
+                        ON transaction_header(member_id, datetime)
+                        """);
+            }
+        }
+    }
+
+    /**
+     * Version 4: id_sequence table backing the block ID allocator. Rows are created on first use, seeded from
+     * the highest existing id, so nothing is backfilled here.
+     */
+    static final class IdSequenceMigration implements Migration {
+
+        @Override
+        public int getVersion() {
+            return 4;
+        }
+
+        @Override
+        public String getDescription() {
+            return "id_sequence table for block id allocation";
+        }
+
+        @Override
+        public void apply(Connection conn, MigrationRunner runner) throws SQLException {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("""
+                        CREATE TABLE IF NOT EXISTS id_sequence(
+                            name TEXT PRIMARY KEY,
+                            next_value INTEGER NOT NULL
+                        )
+                        """);
+            }
+        }
+    }
+
+    /**
+     * Version 5: the datetime index also carries total_amount, so date-ranged SUM/COUNT summaries are answered
+     * from the index without touching header rows. It replaces the plain datetime index from version 3.
+     */
+    static final class SalesSummaryIndexMigration implements Migration {
+
+        @Override
+        public int getVersion() {
+            return 5;
+        }
+
+        @Override
+        public String getDescription() {
+            return "covering datetime + total_amount index on transaction_header";
+        }
+
+        @Override
+        public void apply(Connection conn, MigrationRunner runner) throws SQLException {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("""
+                        CREATE INDEX IF NOT EXISTS idx_transaction_header_datetime_amount
+                        ON transaction_header(datetime, total_amount)
+                        """);
+                stmt.executeUpdate("DROP INDEX IF EXISTS idx_transaction_header_datetime");
+            }
+        }
+    }
+
+    /**
+     * Version 6: the member index also carries transaction_id, so newest-first keyset pages over
+     * (datetime, transaction_id) are read straight off the index with no sort. Replaces the version 3 index.
+     */
+    static final class MemberKeysetIndexMigration implements Migration {
+
+        @Override
+        public int getVersion() {
+            return 6;
+        }
+
+        @Override
+        public String getDescription() {
+            return "member keyset index on transaction_header";
+        }
+
+        @Override
+        public void apply(Connection conn, MigrationRunner runner) throws SQLException {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("""
+                        CREATE INDEX IF NOT EXISTS idx_transaction_header_member_keyset
+                        ON transaction_header(member_id, datetime, transaction_id)
+                        """);
+                stmt.executeUpdate("DROP INDEX IF EXISTS idx_transaction_header_member");
+            }
+        }
+    }
+
+    /**
+     * Version 7: member_fts, an FTS5 trigram index over member names keyed by the member rowid, so substring
+     * name searches are index lookups ranked by bm25. JdbcMemberRepository keeps it in step whenever an upsert adds or renames a member. If
+     * the SQLite build has no FTS5 the table is left out and searches fall back to LIKE.
+     */
+    static final class MemberSearchMigration implements Migration {
+
+        @Override
+        public int getVersion() {
+            return 7;
+        }
+
+        @Override
+        public String getDescription() {
+            return "member_fts trigram name search index";
+        }
+
+        @Override
+        public void apply(Connection conn, MigrationRunner runner) throws SQLException {
+            try (Statement stmt = conn.createStatement()) {
+                try {
+                    stmt.executeUpdate(
+                            "CREATE VIRTUAL TABLE IF NOT EXISTS member_fts USING fts5(name, tokenize='trigram')");
+                } catch (SQLException e) {
+                    LOG.warn("FTS5 trigram tokenizer unavailable, member search will use LIKE: {}", e.getMessage());
+                    return;
+                }
+                stmt.executeUpdate("DELETE FROM member_fts");
+                int indexed = stmt.executeUpdate("INSERT INTO member_fts(rowid, name) SELECT rowid, name FROM member");
+                LOG.info("Indexed {} member names for search", indexed);
+            }
+        }
+    }
+
+    /**
+     * Version 8: daily_sales, one row per (day, customer_type, payment_method) holding the transaction count and
+     * amount, so sales summaries over any range sum a few rows per day instead of every header.
+     * JdbcTransactionRepository keeps it current in the same transaction as each save or amend; the table is
+     * backfilled here and can be rebuilt later with {@link Database#rebuildDailySales()}.
+     */
+    static final class DailySalesRollupMigration implements Migration {
+
+        @Override
+        public int getVersion() {
+            return 8;
+        }
+
+        @Override
+        public String getDescription() {
+            return "daily_sales rollup table";
+        }
+
+        @Override
+        public void apply(Connection conn, MigrationRunner runner) throws SQLException {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("""
+                        CREATE TABLE IF NOT EXISTS daily_sales(
+                            sale_date TEXT NOT NULL,
+                            customer_type TEXT NOT NULL,
+                            payment_method TEXT NOT NULL,
+                            txn_count INTEGER NOT NULL,
+                            total_amount REAL NOT NULL,
+                            PRIMARY KEY(sale_date, customer_type, payment_method)
+                        ) WITHOUT ROWID
+                        """);
+            }
+            int rows = rebuild(conn);
+            LOG.info("Backfilled {} daily_sales rows", rows);
+        }
+
+        /**
+         * Recompute every rollup row from transaction_header on the caller's transaction.
+         *
+         * @return rollup rows written
+         */
+        static int rebuild(Connection conn) throws SQLException {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("DELETE FROM daily_sales");
+                // datetime is ISO-8601 text, so its first ten characters are the day
+                return stmt.executeUpdate("""
+                        INSERT INTO daily_sales(sale_date, customer_type, payment_method, txn_count, total_amount)
+                        SELECT substr(datetime, 1, 10), customer_type, payment_method, COUNT(*), SUM(total_amount)
+                        FROM transaction_header
+                        GROUP BY substr(datetime, 1, 10), customer_type, payment_method
+                        """);
+            }
+        }
+    }
+}
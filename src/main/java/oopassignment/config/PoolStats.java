@@ -0,0 +1,119 @@
+package oopassignment.config;
+
+/**
+ * Point-in-time snapshot of {@link ConnectionPool} counters, used to size the pool under checkout load.
+ */
+public class PoolStats {
+    private final long hits;
+    private final long misses;
+    private final long waits;
+    private final long totalWaitNanos;
+    private final long timeouts;
+    private final long evictions;
+    private final int active;
+    private final int idle;
+    private final int maxSize;
+    private final long statementHits;
+    private final long statementMisses;
+
+    public PoolStats(long hits, long misses, long waits, long totalWaitNanos, long timeouts, long evictions,
+                     int active, int idle, int maxSize) {
+        this(hits, misses, waits, totalWaitNanos, timeouts, evictions, active, idle, maxSize, 0, 0);
+    }
+
+    public PoolStats(long hits, long misses, long waits, long totalWaitNanos, long timeouts, long evictions,
+                     int active, int idle, int maxSize, long statementHits, long statementMisses) {
+        this.hits = hits;
+        this.misses = misses;
+        this.waits = waits;
+        this.totalWaitNanos = totalWaitNanos;
+        this.timeouts = timeouts;
+        this.evictions = evictions;
+        this.active = active;
+        this.idle = idle;
+        this.maxSize = maxSize;
+        this.statementHits = statementHits;
+        this.statementMisses = statementMisses;
+    }
+
+    /** Borrows served by an idle pooled connection. */
+    public long getHits() {
+        return hits;
+    }
+
+    /** Borrows that had to open a new physical connection. */
+    public long getMisses() {
+        return misses;
+    }
+
+    /** Borrows that blocked because the pool was exhausted. */
+    public long getWaits() {
+        return waits;
+    }
+
+    public long getTotalWaitNanos() {
+        return totalWaitNanos;
+    }
+
+    public long getTimeouts() {
+        return timeouts;
+    }
+
+    /** Connections closed by idle eviction or failed validation. */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public int getActive() {
+        return active;
+    }
+
+    public int getIdle() {
+        return idle;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public double getHitRatio() {
+        long borrows = hits + misses;
+        if (borrows == 0) {
+            return 0.0;
+        }
+        return (double) hits / borrows;
+    }
+
+    public double getAverageWaitMillis() {
+        if (waits == 0) {
+            return 0.0;
+        }
+        return totalWaitNanos / 1_000_000.0 / waits;
+    }
+
+    /** prepareStatement calls served from a connection's statement cache. */
+    public long getStatementHits() {
+        return statementHits;
+    }
+
+    /** prepareStatement calls that had to parse the SQL. */
+    public long getStatementMisses() {
+        return statementMisses;
+    }
+
+    public double getStatementHitRatio() {
+        long prepares = statementHits + statementMisses;
+        if (prepares == 0) {
+            return 0.0;
+        }
+        return (double) statementHits / prepares;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PoolStats[hits=%d, misses=%d, hitRatio=%.2f, waits=%d, avgWaitMs=%.2f, timeouts=%d, "
+                        + "evictions=%d, active=%d, idle=%d, max=%d, stmtHits=%d, stmtMisses=%d, stmtHitRatio=%.2f]",
+                hits, misses, getHitRatio(), waits, getAverageWaitMillis(), timeouts, evictions, active, idle, maxSize,
+                statementHits, statementMisses, getStatementHitRatio());
+    }
+}
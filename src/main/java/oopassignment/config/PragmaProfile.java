@@ -0,0 +1,109 @@
+package oopassignment.config;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Locale;
+
+/**
+ * SQLite pragma settings applied to every pooled connection. Pick a named preset with
+ * {@code -Dbootsdo.db.profile=durable|throughput|report-node}.
+ */
+public final class PragmaProfile {
+
+    /** WAL with fsync on every commit; safest default for the checkout till. */
+    public static final PragmaProfile DURABLE =
+            new PragmaProfile("durable", "WAL", "FULL", 0L, -2_000, "DEFAULT", 5_000);
+    /** WAL with fsync only at checkpoints; a power cut may lose the last few commits but never corrupts. */
+    public static final PragmaProfile THROUGHPUT =
+            new PragmaProfile("throughput", "WAL", "NORMAL", 64L * 1024 * 1024, -16_000, "MEMORY", 5_000);
+    /** Read-heavy back-office node: large mmap/cache and a longer busy wait behind the writers. */
+    public static final PragmaProfile REPORT_NODE =
+            new PragmaProfile("report-node", "WAL", "NORMAL", 256L * 1024 * 1024, -64_000, "MEMORY", 15_000);
+
+    private final String name;
+    private final String journalMode;
+    private final String synchronous;
+    private final long mmapSize;
+    private final int cacheSize;
+    private final String tempStore;
+    private final int busyTimeoutMs;
+
+    /**
+     * @param cacheSize SQLite semantics: positive values are pages, negative values are KiB
+     */
+    public PragmaProfile(String name, String journalMode, String synchronous, long mmapSize, int cacheSize,
+                         String tempStore, int busyTimeoutMs) {
+        this.name = name;
+        this.journalMode = journalMode;
+        this.synchronous = synchronous;
+        this.mmapSize = mmapSize;
+        this.cacheSize = cacheSize;
+        this.tempStore = tempStore;
+        this.busyTimeoutMs = busyTimeoutMs;
+    }
+
+    /**
+     * Resolve a preset by name (case-insensitive). Returns null for unknown names.
+     */
+    public static PragmaProfile forName(String name) {
+        if (name == null) {
+            return null;
+        }
+        switch (name.trim().toLowerCase(Locale.ROOT)) {
+            case "durable":
+                return DURABLE;
+            case "throughput":
+                return THROUGHPUT;
+            case "report-node":
+                return REPORT_NODE;
+            default:
+                return null;
+        }
+    }
+
+    public void apply(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            // busy_timeout first so the journal_mode switch waits out other writers instead of failing
+            stmt.execute("PRAGMA busy_timeout = " + busyTimeoutMs);
+            stmt.execute("PRAGMA journal_mode = " + journalMode);
+            stmt.execute("PRAGMA synchronous = " + synchronous);
+            stmt.execute("PRAGMA mmap_size = " + mmapSize);
+            stmt.execute("PRAGMA cache_size = " + cacheSize);
+            stmt.execute("PRAGMA temp_store = " + tempStore);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getJournalMode() {
+        return journalMode;
+    }
+
+    public String getSynchronous() {
+        return synchronous;
+    }
+
+    public long getMmapSize() {
+        return mmapSize;
+    }
+
+    public int getCacheSize() {
+        return cacheSize;
+    }
+
+    public String getTempStore() {
+        return tempStore;
+    }
+
+    public int getBusyTimeoutMs() {
+        return busyTimeoutMs;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
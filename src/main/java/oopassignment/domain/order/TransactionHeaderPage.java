@@ -0,0 +1,67 @@
+package oopassignment.domain.order;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One newest-first page of transaction headers plus an opaque keyset cursor for the next (older) page.
+ */
+public class TransactionHeaderPage {
+    private final List<TransactionHeader> headers;
+    private final String nextCursor;
+
+    public TransactionHeaderPage(List<TransactionHeader> headers, String nextCursor) {
+        this.headers = headers;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<TransactionHeader> getHeaders() {
+        return headers;
+    }
+
+    /**
+     * Cursor to pass back for the next page, or null when this is the last page.
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+
+    /**
+     * Build a page from up to {@code limit + 1} fetched rows; the extra row only signals that another page exists.
+     */
+    public static TransactionHeaderPage fromFetched(List<TransactionHeader> fetched, int limit) {
+        if (fetched.size() <= limit) {
+            return new TransactionHeaderPage(fetched, null);
+        }
+        List<TransactionHeader> page = new ArrayList<>(fetched.subList(0, limit));
+        return new TransactionHeaderPage(page, cursorAfter(page.get(limit - 1)));
+    }
+
+    /**
+     * Cursor positioned just after {@code header} in newest-first order.
+     */
+    public static String cursorAfter(TransactionHeader header) {
+        return header.getDateTime() + "|" + header.getTransactionId();
+    }
+
+    public static LocalDateTime cursorDateTime(String cursor) {
+        return LocalDateTime.parse(cursor.substring(0, separator(cursor)));
+    }
+
+    public static String cursorTransactionId(String cursor) {
+        return cursor.substring(separator(cursor) + 1);
+    }
+
+    private static int separator(String cursor) {
+        int index = cursor.indexOf('|');
+        if (index < 0) {
+            throw new IllegalArgumentException("Malformed page cursor: " + cursor);
+        }
+        return index;
+    }
+}
@@ -0,0 +1,33 @@
+package oopassignment.domain.product;
+
+import java.util.List;
+
+/**
+ * A product together with its per-size stock rows, as shown on the product and order listings.
+ */
+public class ProductStock {
+    private final ProductRecord product;
+    private final List<StockItem> stock;
+
+    public ProductStock(ProductRecord product, List<StockItem> stock) {
+        this.product = product;
+        this.stock = stock;
+    }
+
+    public ProductRecord getProduct() {
+        return product;
+    }
+
+    /** Stock rows for the product; empty when nothing has been stocked yet. */
+    public List<StockItem> getStock() {
+        return stock;
+    }
+
+    public int getTotalQuantity() {
+        int total = 0;
+        for (StockItem item : stock) {
+            total += item.getQuantity();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,31 @@
+package oopassignment.domain.report;
+
+import java.util.List;
+
+/**
+ * One newest-first page of a member's purchase history.
+ */
+public class MemberPurchasePage {
+    private final List<MemberPurchase> purchases;
+    private final String nextCursor;
+
+    public MemberPurchasePage(List<MemberPurchase> purchases, String nextCursor) {
+        this.purchases = purchases;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<MemberPurchase> getPurchases() {
+        return purchases;
+    }
+
+    /**
+     * Cursor for the next (older) page, or null when there is none.
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+}
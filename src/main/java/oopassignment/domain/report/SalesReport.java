@@ -0,0 +1,25 @@
+package oopassignment.domain.report;
+
+import java.util.List;
+import oopassignment.domain.order.TransactionHeader;
+
+/**
+ * Transactions in a date range together with their summary, built from one read of the history.
+ */
+public class SalesReport {
+    private final List<TransactionHeader> transactions;
+    private final SalesSummary summary;
+
+    public SalesReport(List<TransactionHeader> transactions, SalesSummary summary) {
+        this.transactions = transactions;
+        this.summary = summary;
+    }
+
+    public List<TransactionHeader> getTransactions() {
+        return transactions;
+    }
+
+    public SalesSummary getSummary() {
+        return summary;
+    }
+}
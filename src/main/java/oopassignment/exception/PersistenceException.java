@@ -0,0 +1,7 @@
+package oopassignment.exception;
+
+public class PersistenceException extends RuntimeException {
+    public PersistenceException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -11,6 +11,11 @@ public interface MemberRepository {
 
     List<MemberRecord> searchByName(String keyword);
 
+    /**
+     * Members whose name contains {@code keyword}, ignoring case, best matches first and at most {@code limit}.
+     */
+    List<MemberRecord> searchByName(String keyword, int limit);
+
     void save(MemberRecord member);
 
     void update(MemberRecord member);
@@ -0,0 +1,11 @@
+package oopassignment.repository;
+
+import java.util.function.LongSupplier;
+
+public interface SequenceRepository {
+    /**
+     * Reserve {@code blockSize} consecutive values of the named sequence and return the first. A sequence that
+     * does not exist yet is created to start after {@code currentMax}, which is only evaluated then.
+     */
+    long reserveBlock(String name, int blockSize, LongSupplier currentMax);
+}
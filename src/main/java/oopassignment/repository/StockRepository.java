@@ -1,18 +1,41 @@
 package oopassignment.repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import oopassignment.domain.product.StockItem;
 
 public interface StockRepository {
     List<StockItem> findByProductId(String productId);
 
+    /**
+     * Every stock row in one read, keyed by upper-case product id. Products without stock rows are absent.
+     */
+    Map<String, List<StockItem>> findAllGroupedByProduct();
+
+    /**
+     * Stock rows for many products in one round trip, keyed by upper-case product id. Products without stock rows
+     * are absent from the map.
+     */
+    Map<String, List<StockItem>> findByProductIds(Collection<String> productIds);
+
     int getQuantity(String productId, String size);
 
     int getTotalQuantity(String productId);
 
     void setQuantity(String productId, String size, int qty);
 
+    /**
+     * Add {@code qty} to the row in one atomic step, creating it if missing.
+     */
     void increaseQuantity(String productId, String size, int qty);
 
     void decreaseQuantity(String productId, String size, int qty);
+
+    /**
+     * Take {@code qty} off the row only if at least that much is on hand, as one atomic check-and-write.
+     *
+     * @return true if the stock was reduced, false if there was not enough (nothing is changed)
+     */
+    boolean tryDecreaseQuantity(String productId, String size, int qty);
 }
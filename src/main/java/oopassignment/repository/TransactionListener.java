@@ -0,0 +1,18 @@
+package oopassignment.repository;
+
+import java.util.List;
+import oopassignment.domain.order.TransactionHeader;
+import oopassignment.domain.order.TransactionItem;
+
+/**
+ * Told about transaction writes after they reach the repository, e.g. to drop cached reports that covered them.
+ */
+public interface TransactionListener {
+
+    void transactionSaved(TransactionHeader header, List<TransactionItem> items);
+
+    /**
+     * The transaction's previous header is not passed, so anything it may have touched should be treated as stale.
+     */
+    void transactionAmended(TransactionHeader header, List<TransactionItem> items);
+}
@@ -1,13 +1,64 @@
 package oopassignment.repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 import oopassignment.domain.order.TransactionHeader;
+import oopassignment.domain.order.TransactionHeaderPage;
 import oopassignment.domain.order.TransactionItem;
+import oopassignment.domain.report.SalesSummary;
 
 public interface TransactionRepository {
+    /**
+     * Persist a new transaction. Ids must be fresh; use {@link #amendTransaction} to overwrite an existing one.
+     *
+     * @throws oopassignment.exception.PersistenceException if the store could not commit it
+     */
     void saveTransaction(TransactionHeader header, List<TransactionItem> items);
 
+    /**
+     * Overwrite an existing transaction's header and lines, e.g. after a correction. Creates it if missing.
+     *
+     * @throws oopassignment.exception.PersistenceException if the store could not commit it
+     */
+    void amendTransaction(TransactionHeader header, List<TransactionItem> items);
+
     List<TransactionHeader> findAllHeaders();
 
+    /**
+     * Same headers, in the same order, as {@link #findAllHeaders}, but read lazily instead of materialized. The
+     * stream may hold a DB connection, so callers must close it (try-with-resources).
+     *
+     * @throws oopassignment.exception.PersistenceException from the stream's terminal operation if the store fails
+     *                                                      part way through, rather than ending it early
+     */
+    Stream<TransactionHeader> streamHeaders();
+
+    /**
+     * Headers dated within {@code [from, to]} (inclusive days; a null bound is open), filtered by the store
+     * rather than by the caller. Must be closed like {@link #streamHeaders}.
+     */
+    Stream<TransactionHeader> streamHeadersBetween(LocalDate from, LocalDate to);
+
+    /**
+     * Total amount and count of transactions in {@code [from, to]}, aggregated by the store without building a
+     * header per row.
+     */
+    SalesSummary summarizeSales(LocalDate from, LocalDate to);
+
+    /**
+     * A member's transactions newest first, {@code limit} at a time. Pass null as the cursor for the first page
+     * and {@link TransactionHeaderPage#getNextCursor()} for the following ones.
+     */
+    TransactionHeaderPage findHeadersByMember(String memberId, int limit, String cursor);
+
     List<TransactionItem> findItemsByTransaction(String transactionId);
+
+    /**
+     * Lines for many transactions in one round trip, keyed by transaction id in line order. Transactions without
+     * lines are absent from the map.
+     */
+    Map<String, List<TransactionItem>> findItemsByTransactions(Collection<String> transactionIds);
 }
@@ -0,0 +1,134 @@
+package oopassignment.repository.impl;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import oopassignment.domain.product.ProductRecord;
+import oopassignment.repository.ProductRepository;
+import oopassignment.util.CacheStats;
+
+/**
+ * Read-through LRU cache in front of a {@link ProductRepository}. findById is served from memory after the first
+ * lookup; writes through this repository invalidate the entry, and entries also expire after {@code ttlMs} so
+ * changes made by other terminals show up. Records are copied in and out, because ProductRecord is mutable.
+ */
+public class CachingProductRepository implements ProductRepository {
+
+    private final ProductRepository delegate;
+    private final int maxSize;
+    private final long ttlNanos;
+    private final Map<String, Entry> entries;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+    private long generation; // bumped on every write so a load racing with it is not cached
+
+    public CachingProductRepository(ProductRepository delegate, int maxSize, long ttlMs) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+        this.delegate = delegate;
+        this.maxSize = maxSize;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > CachingProductRepository.this.maxSize) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public List<ProductRecord> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public Optional<ProductRecord> findById(String id) {
+        if (id == null) {
+            return delegate.findById(null);
+        }
+        long loadGeneration;
+        synchronized (this) {
+            Entry entry = entries.get(id);
+            if (entry != null) {
+                if (System.nanoTime() - entry.loadedAt < ttlNanos) {
+                    hits++;
+                    return Optional.of(copy(entry.product));
+                }
+                entries.remove(id);
+                evictions++;
+            }
+            misses++;
+            loadGeneration = generation;
+        }
+        // Load outside the lock so a slow query does not block hits for other products
+        Optional<ProductRecord> loaded = delegate.findById(id);
+        loaded.ifPresent(product -> {
+            synchronized (this) {
+                if (generation == loadGeneration) {
+                    entries.put(id, new Entry(copy(product), System.nanoTime()));
+                }
+            }
+        });
+        return loaded;
+    }
+
+    @Override
+    public void save(ProductRecord product) {
+        delegate.save(product);
+        invalidate(product.getProductId());
+    }
+
+    @Override
+    public void update(ProductRecord product) {
+        delegate.update(product);
+        invalidate(product.getProductId());
+    }
+
+    @Override
+    public void delete(String productId) {
+        delegate.delete(productId);
+        invalidate(productId);
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        invalidations += entries.size();
+        entries.clear();
+    }
+
+    public synchronized CacheStats getStats() {
+        return new CacheStats(hits, misses, evictions, invalidations, entries.size(), maxSize);
+    }
+
+    private synchronized void invalidate(String productId) {
+        generation++;
+        if (entries.remove(productId) != null) {
+            invalidations++;
+        }
+    }
+
+    private static ProductRecord copy(ProductRecord product) {
+        return new ProductRecord(product.getProductId(), product.getName(), product.getCategory(),
+                product.getPrice(), product.getStatus());
+    }
+
+    private static final class Entry {
+        private final ProductRecord product;
+        private final long loadedAt;
+
+        private Entry(ProductRecord product, long loadedAt) {
+            this.product = product;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
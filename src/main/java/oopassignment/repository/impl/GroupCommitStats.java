@@ -0,0 +1,79 @@
+package oopassignment.repository.impl;
+
+/**
+ * Point-in-time snapshot of {@link GroupCommitTransactionRepository} counters, used to tune flush size and delay.
+ */
+public class GroupCommitStats {
+    private final long flushes;
+    private final long transactions;
+    private final int largestFlush;
+    private final long totalFlushNanos;
+    private final long totalAckNanos;
+    private final long fallbacks;
+    private final int queued;
+
+    public GroupCommitStats(long flushes, long transactions, int largestFlush, long totalFlushNanos,
+                            long totalAckNanos, long fallbacks, int queued) {
+        this.flushes = flushes;
+        this.transactions = transactions;
+        this.largestFlush = largestFlush;
+        this.totalFlushNanos = totalFlushNanos;
+        this.totalAckNanos = totalAckNanos;
+        this.fallbacks = fallbacks;
+        this.queued = queued;
+    }
+
+    /** Group commits issued, i.e. DB transactions written by the flusher. */
+    public long getFlushes() {
+        return flushes;
+    }
+
+    /** Transactions acknowledged through the flusher. */
+    public long getTransactions() {
+        return transactions;
+    }
+
+    public int getLargestFlush() {
+        return largestFlush;
+    }
+
+    public double getAverageFlushSize() {
+        if (flushes == 0) {
+            return 0.0;
+        }
+        return (double) transactions / flushes;
+    }
+
+    /** Time spent writing and committing a batch. */
+    public double getAverageFlushMillis() {
+        if (flushes == 0) {
+            return 0.0;
+        }
+        return totalFlushNanos / 1_000_000.0 / flushes;
+    }
+
+    /** Time a caller waited from enqueue to durable acknowledgement. */
+    public double getAverageAckMillis() {
+        if (transactions == 0) {
+            return 0.0;
+        }
+        return totalAckNanos / 1_000_000.0 / transactions;
+    }
+
+    /** Batches that failed as a whole and were retried one transaction at a time. */
+    public long getFallbacks() {
+        return fallbacks;
+    }
+
+    public int getQueued() {
+        return queued;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("GroupCommitStats[flushes=%d, transactions=%d, avgFlushSize=%.2f, largestFlush=%d, "
+                        + "avgFlushMs=%.2f, avgAckMs=%.2f, fallbacks=%d, queued=%d]",
+                flushes, transactions, getAverageFlushSize(), largestFlush, getAverageFlushMillis(),
+                getAverageAckMillis(), fallbacks, queued);
+    }
+}
@@ -0,0 +1,249 @@
+package oopassignment.repository.impl;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+import oopassignment.domain.order.TransactionHeader;
+import oopassignment.domain.order.TransactionHeaderPage;
+import oopassignment.domain.order.TransactionItem;
+import oopassignment.domain.report.SalesSummary;
+import oopassignment.exception.PersistenceException;
+import oopassignment.repository.TransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Group-commit front for {@link JdbcTransactionRepository}. Concurrent {@link #saveTransaction} calls are queued
+ * and written by a single flusher thread in one DB transaction once {@code maxBatch} orders are waiting or the
+ * oldest has waited {@code maxDelayMs}. Each caller blocks until its batch has committed, so a return from
+ * {@code saveTransaction} still means the order is on disk; if its write failed, the caller gets the delegate's
+ * {@link PersistenceException} instead. Reads and amendments go straight to the delegate.
+ */
+public class GroupCommitTransactionRepository implements TransactionRepository, AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(GroupCommitTransactionRepository.class);
+
+    private final JdbcTransactionRepository delegate;
+    private final long maxDelayNanos;
+    private final int maxBatch;
+    private final BlockingQueue<PendingWrite> queue = new LinkedBlockingQueue<>();
+    private final Thread flusher;
+    // Guards enqueueing against close(), so nothing is queued after the flusher may have exited
+    private final Object enqueueLock = new Object();
+    private volatile boolean closed;
+
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder transactions = new LongAdder();
+    private final AtomicInteger largestFlush = new AtomicInteger();
+    private final LongAdder totalFlushNanos = new LongAdder();
+    private final LongAdder totalAckNanos = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+
+    public GroupCommitTransactionRepository(JdbcTransactionRepository delegate, long maxDelayMs, int maxBatch) {
+        if (maxDelayMs < 0 || maxBatch <= 0) {
+            throw new IllegalArgumentException("Group commit needs maxDelayMs >= 0 and maxBatch > 0");
+        }
+        this.delegate = delegate;
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMs);
+        this.maxBatch = maxBatch;
+        this.flusher = new Thread(this::runFlusher, "bootsdo-group-commit");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    @Override
+    public void saveTransaction(TransactionHeader header, List<TransactionItem> items) {
+        PendingWrite write = new PendingWrite(header, items);
+        boolean queued;
+        synchronized (enqueueLock) {
+            queued = !closed && queue.add(write);
+        }
+        if (!queued) {
+            delegate.saveTransaction(header, items);
+            return;
+        }
+        boolean interrupted = false;
+        while (true) {
+            try {
+                write.done.await();
+                break;
+            } catch (InterruptedException e) {
+                // The order is already queued; keep waiting so the caller never returns before it is durable
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (write.failure != null) {
+            throw write.failure;
+        }
+    }
+
+    @Override
+    public void amendTransaction(TransactionHeader header, List<TransactionItem> items) {
+        delegate.amendTransaction(header, items);
+    }
+
+    @Override
+    public List<TransactionHeader> findAllHeaders() {
+        return delegate.findAllHeaders();
+    }
+
+    @Override
+    public Stream<TransactionHeader> streamHeaders() {
+        return delegate.streamHeaders();
+    }
+
+    @Override
+    public Stream<TransactionHeader> streamHeadersBetween(LocalDate from, LocalDate to) {
+        return delegate.streamHeadersBetween(from, to);
+    }
+
+    @Override
+    public TransactionHeaderPage findHeadersByMember(String memberId, int limit, String cursor) {
+        return delegate.findHeadersByMember(memberId, limit, cursor);
+    }
+
+    @Override
+    public SalesSummary summarizeSales(LocalDate from, LocalDate to) {
+        return delegate.summarizeSales(from, to);
+    }
+
+    @Override
+    public List<TransactionItem> findItemsByTransaction(String transactionId) {
+        return delegate.findItemsByTransaction(transactionId);
+    }
+
+    @Override
+    public Map<String, List<TransactionItem>> findItemsByTransactions(Collection<String> transactionIds) {
+        return delegate.findItemsByTransactions(transactionIds);
+    }
+
+    public GroupCommitStats getStats() {
+        return new GroupCommitStats(flushes.sum(), transactions.sum(), largestFlush.get(), totalFlushNanos.sum(),
+                totalAckNanos.sum(), fallbacks.sum(), queue.size());
+    }
+
+    /**
+     * Stop accepting queued writes, flush whatever is pending and stop the flusher. Later saves go directly to
+     * the delegate.
+     */
+    @Override
+    public void close() {
+        synchronized (enqueueLock) {
+            closed = true;
+        }
+        flusher.interrupt();
+        try {
+            flusher.join(TimeUnit.NANOSECONDS.toMillis(maxDelayNanos) + 5_000L);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Anything that slipped in after the flusher exited
+        List<PendingWrite> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        if (!rest.isEmpty()) {
+            flush(rest);
+        }
+    }
+
+    private void runFlusher() {
+        List<PendingWrite> batch = new ArrayList<>(maxBatch);
+        while (!closed || !queue.isEmpty()) {
+            try {
+                PendingWrite first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = first.enqueuedAt + maxDelayNanos;
+                while (batch.size() < maxBatch) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingWrite next = remaining > 0 && !closed
+                            ? queue.poll(remaining, TimeUnit.NANOSECONDS)
+                            : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // close() wakes us up; drain what is left without waiting for the delay
+                queue.drainTo(batch, maxBatch - batch.size());
+            }
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<PendingWrite> batch) {
+        long start = System.nanoTime();
+        try {
+            Map<TransactionHeader, List<TransactionItem>> ordered = new LinkedHashMap<>();
+            for (PendingWrite write : batch) {
+                ordered.put(write.header, write.items);
+            }
+            if (!delegate.saveTransactions(ordered)) {
+                // One bad order (e.g. a duplicate id) must not fail the others: retry each on its own
+                fallbacks.increment();
+                LOG.warn("Group commit of {} transactions failed, retrying individually", batch.size());
+                for (PendingWrite write : batch) {
+                    try {
+                        delegate.saveTransaction(write.header, write.items);
+                    } catch (PersistenceException e) {
+                        write.failure = e;
+                    } catch (RuntimeException e) {
+                        write.failure = new PersistenceException("Failed to save transaction "
+                                + write.header.getTransactionId(), e);
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            // Only the all-or-nothing batch write can get here, so none of these orders were committed
+            LOG.error("Unexpected error during group commit", e);
+            for (PendingWrite write : batch) {
+                if (write.failure == null) {
+                    write.failure = new PersistenceException("Group commit failed for transaction "
+                            + write.header.getTransactionId(), e);
+                }
+            }
+        } finally {
+            long end = System.nanoTime();
+            flushes.increment();
+            transactions.add(batch.size());
+            totalFlushNanos.add(end - start);
+            largestFlush.accumulateAndGet(batch.size(), Math::max);
+            for (PendingWrite write : batch) {
+                totalAckNanos.add(end - write.enqueuedAt);
+                write.done.countDown();
+            }
+        }
+    }
+
+    private static final class PendingWrite {
+        private final TransactionHeader header;
+        private final List<TransactionItem> items;
+        private final long enqueuedAt = System.nanoTime();
+        private final CountDownLatch done = new CountDownLatch(1);
+        // Set by the flusher before done is counted down, so the waiting caller sees it
+        private PersistenceException failure;
+
+        private PendingWrite(TransactionHeader header, List<TransactionItem> items) {
+            this.header = header;
+            this.items = items;
+        }
+    }
+}
@@ -10,14 +10,33 @@ import oopassignment.config.*;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Member store for runs without a database. Reads are lock-free on concurrent maps; writes are serialized so the
+ * IC index, the name trigram index, the listing order and the primary map always change together.
+ */
 public class InMemoryMemberRepository implements MemberRepository {
 
-    private final Map<String, MemberRecord> members = new LinkedHashMap<>();
+    private final Map<String, MemberRecord> members = new ConcurrentHashMap<>();
+    // IC -> member id; resolved through members so callers always see the current record
+    private final Map<String, String> memberIdByIc = new ConcurrentHashMap<>();
+    // member id -> IC as last indexed, so a record whose IC was changed in place can still be unindexed
+    private final Map<String, String> indexedIc = new HashMap<>();
+    private final TrigramIndex nameIndex = new TrigramIndex();
+    // member id -> name as last indexed, for the same reason as indexedIc
+    private final Map<String, String> indexedName = new HashMap<>();
+    private final List<MemberRecord> ordered = new ArrayList<>();
+    private final Map<String, Integer> position = new HashMap<>();
+    // Published read-only copy of ordered; null after a write until the next listing rebuilds it
+    private volatile List<MemberRecord> snapshot;
 
     public InMemoryMemberRepository() {
         seedDefaults();
@@ -36,46 +55,147 @@ public class InMemoryMemberRepository implements MemberRepository {
 
     @Override
     public Optional<MemberRecord> findById(String memberId) {
+        if (memberId == null) {
+            return Optional.empty();
+        }
         return Optional.ofNullable(members.get(memberId));
     }
 
     @Override
     public Optional<MemberRecord> findByIc(String icNumber) {
-        for (MemberRecord record : members.values()) {
-            if (record.getIcNumber().equals(icNumber)) {
-                return Optional.of(record);
-            }
+        if (icNumber == null) {
+            return Optional.empty();
+        }
+        String memberId = memberIdByIc.get(icNumber);
+        if (memberId == null) {
+            return Optional.empty();
+        }
+        MemberRecord record = members.get(memberId);
+        // The entry is stale if the record's IC was edited in place and update() has not run yet
+        if (record == null || !icNumber.equals(record.getIcNumber())) {
+            return Optional.empty();
         }
-        return Optional.empty();
+        return Optional.of(record);
     }
 
     @Override
     public List<MemberRecord> searchByName(String keyword) {
+        return searchByName(keyword, AppConfig.MEMBER_SEARCH_LIMIT);
+    }
+
+    @Override
+    public List<MemberRecord> searchByName(String keyword, int limit) {
         List<MemberRecord> results = new ArrayList<>();
-        if (keyword == null || keyword.isEmpty()) {
+        if (keyword == null || keyword.isBlank() || limit <= 0) {
             return results;
         }
         String lower = keyword.toLowerCase();
-        for (MemberRecord record : members.values()) {
-            if (record.getName().toLowerCase().contains(lower)) {
-                results.add(record);
+        Set<String> candidates = nameIndex.candidates(lower);
+        if (candidates == null) {
+            // Too short for a trigram lookup
+            for (MemberRecord record : findAll()) {
+                if (record.getName().toLowerCase().contains(lower)) {
+                    results.add(record);
+                }
             }
+        } else {
+            for (String memberId : candidates) {
+                MemberRecord record = members.get(memberId);
+                // Trigrams only narrow the set; confirm the substring against the current name
+                if (record != null && record.getName().toLowerCase().contains(lower)) {
+                    results.add(record);
+                }
+            }
+        }
+        results.sort(Comparator.comparingInt((MemberRecord m) -> matchRank(m.getName(), lower))
+                .thenComparingInt(m -> m.getName().toLowerCase().indexOf(lower))
+                .thenComparingInt(m -> m.getName().length())
+                .thenComparing(MemberRecord::getMemberId));
+        return results.size() > limit ? new ArrayList<>(results.subList(0, limit)) : results;
+    }
+
+    /** 0 when the name starts with the keyword, 1 when a later word does, 2 for a match inside a word. */
+    private static int matchRank(String name, String lowerKeyword) {
+        String lowerName = name.toLowerCase();
+        if (lowerName.startsWith(lowerKeyword)) {
+            return 0;
         }
-        return results;
+        return lowerName.contains(" " + lowerKeyword) ? 1 : 2;
     }
 
     @Override
     public void save(MemberRecord member) {
-        members.put(member.getMemberId(), member);
+        put(member);
     }
 
     @Override
     public void update(MemberRecord member) {
-        members.put(member.getMemberId(), member);
+        put(member);
     }
 
+    /**
+     * Read-only view of every member in registration order. The view is shared between calls and only rebuilt
+     * on the first listing after a write, so listing does not copy the store each time.
+     */
     @Override
     public List<MemberRecord> findAll() {
-        return new ArrayList<>(members.values());
+        List<MemberRecord> view = snapshot;
+        if (view != null) {
+            return view;
+        }
+        synchronized (this) {
+            if (snapshot == null) {
+                snapshot = Collections.unmodifiableList(new ArrayList<>(ordered));
+            }
+            return snapshot;
+        }
+    }
+
+    private synchronized void put(MemberRecord member) {
+        String memberId = member.getMemberId();
+        MemberRecord previous = members.put(memberId, member);
+        reindexIc(memberId, member.getIcNumber());
+        reindexName(memberId, member.getName());
+
+        Integer index = position.get(memberId);
+        if (index == null) {
+            position.put(memberId, ordered.size());
+            ordered.add(member);
+        } else if (previous != member) {
+            ordered.set(index, member);
+        } else {
+            // Same instance updated in place: the published view already points at it
+            return;
+        }
+        snapshot = null;
+    }
+
+    private void reindexIc(String memberId, String icNumber) {
+        String oldIc = indexedIc.get(memberId);
+        if (oldIc != null && !oldIc.equals(icNumber)) {
+            memberIdByIc.remove(oldIc, memberId);
+        }
+        if (icNumber == null) {
+            indexedIc.remove(memberId);
+            return;
+        }
+        memberIdByIc.put(icNumber, memberId);
+        indexedIc.put(memberId, icNumber);
+    }
+
+    private void reindexName(String memberId, String name) {
+        String oldName = indexedName.get(memberId);
+        if (oldName != null && oldName.equals(name)) {
+            return;
+        }
+        if (oldName != null) {
+            nameIndex.remove(memberId, oldName);
+        }
+        if (name == null) {
+            indexedName.remove(memberId);
+            return;
+        }
+        nameIndex.add(memberId, name);
+        indexedName.put(memberId, name);
     }
 }
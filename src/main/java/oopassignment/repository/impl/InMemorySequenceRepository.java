@@ -0,0 +1,21 @@
+package oopassignment.repository.impl;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import oopassignment.repository.SequenceRepository;
+
+public class InMemorySequenceRepository implements SequenceRepository {
+
+    private final Map<String, Long> nextValues = new HashMap<>();
+
+    @Override
+    public synchronized long reserveBlock(String name, int blockSize, LongSupplier currentMax) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Block size must be positive");
+        }
+        long first = nextValues.computeIfAbsent(name, n -> currentMax.getAsLong() + 1);
+        nextValues.put(name, first + blockSize);
+        return first;
+    }
+}
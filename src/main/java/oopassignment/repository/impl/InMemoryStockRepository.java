@@ -9,13 +9,24 @@ import oopassignment.util.*;
 import oopassignment.config.*;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Stock store for runs without a database, indexed by product then size. Quantities are atomic ints and each
+ * product keeps a running total, so lookups take no locks and allocate nothing once ids are normalized.
+ * Listings come back in the order products and sizes were first stocked, as they did from the old linked map.
+ */
 public class InMemoryStockRepository implements StockRepository {
 
-    private final Map<String, StockItem> stock = new LinkedHashMap<>();
+    private final Map<String, ProductLevels> stock = new ConcurrentHashMap<>();
+    // Products are never removed, so first-stocked order is simply the order ids were added here
+    private final Collection<String> productOrder = new ConcurrentLinkedQueue<>();
 
     public InMemoryStockRepository() {
         seedDefaults();
@@ -29,32 +40,60 @@ public class InMemoryStockRepository implements StockRepository {
 
     @Override
     public List<StockItem> findByProductId(String productId) {
-        // Normalize to uppercase for case-insensitive comparison
-        String normalizedProductId = productId != null ? productId.toUpperCase().trim() : null;
+        String normalizedProductId = normalize(productId);
         List<StockItem> items = new ArrayList<>();
-        for (StockItem item : stock.values()) {
-            if (item.getProductId().toUpperCase().equals(normalizedProductId)) {
-                items.add(item);
-            }
+        ProductLevels levels = normalizedProductId != null ? stock.get(normalizedProductId) : null;
+        if (levels != null) {
+            levels.addItems(normalizedProductId, items);
         }
         return items;
     }
 
+    @Override
+    public Map<String, List<StockItem>> findAllGroupedByProduct() {
+        Map<String, List<StockItem>> result = new LinkedHashMap<>();
+        for (String productId : productOrder) {
+            // An id is queued just before its entry is published, so a concurrent add may not be visible yet
+            ProductLevels levels = stock.get(productId);
+            if (levels == null) {
+                continue;
+            }
+            List<StockItem> items = new ArrayList<>();
+            levels.addItems(productId, items);
+            if (!items.isEmpty()) {
+                result.put(productId, items);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, List<StockItem>> findByProductIds(Collection<String> productIds) {
+        Map<String, List<StockItem>> result = new LinkedHashMap<>();
+        for (String productId : productIds) {
+            String normalizedProductId = normalize(productId);
+            if (normalizedProductId == null || result.containsKey(normalizedProductId)) {
+                continue;
+            }
+            List<StockItem> items = findByProductId(normalizedProductId);
+            if (!items.isEmpty()) {
+                result.put(normalizedProductId, items);
+            }
+        }
+        return result;
+    }
+
     @Override
     public int getQuantity(String productId, String size) {
-        // Normalize to uppercase for case-insensitive comparison
-        String normalizedProductId = productId != null ? productId.toUpperCase().trim() : null;
-        String normalizedSize = size != null ? size.toUpperCase().trim() : null;
-        return stock.getOrDefault(key(normalizedProductId, normalizedSize), new StockItem(normalizedProductId, normalizedSize, 0)).getQuantity();
+        AtomicInteger level = find(productId, size);
+        return level != null ? level.get() : 0;
     }
 
     @Override
     public int getTotalQuantity(String productId) {
-        int total = 0;
-        for (StockItem item : findByProductId(productId)) {
-            total += item.getQuantity();
-        }
-        return total;
+        String normalizedProductId = normalize(productId);
+        ProductLevels levels = normalizedProductId != null ? stock.get(normalizedProductId) : null;
+        return levels != null ? levels.total.get() : 0;
     }
 
     @Override
@@ -62,10 +101,9 @@ public class InMemoryStockRepository implements StockRepository {
         if (qty < 0) {
             throw new IllegalArgumentException("Quantity cannot be negative");
         }
-        // Normalize to uppercase before storing
-        String normalizedProductId = productId != null ? productId.toUpperCase().trim() : null;
-        String normalizedSize = size != null ? size.toUpperCase().trim() : null;
-        stock.put(key(normalizedProductId, normalizedSize), new StockItem(normalizedProductId, normalizedSize, qty));
+        ProductLevels levels = levelsFor(productId);
+        int previous = levels.levelFor(normalize(size)).getAndSet(qty);
+        levels.total.addAndGet(qty - previous);
     }
 
     @Override
@@ -73,23 +111,97 @@ public class InMemoryStockRepository implements StockRepository {
         if (qty < 0) {
             throw new IllegalArgumentException("Quantity cannot be negative");
         }
-        int current = getQuantity(productId, size);
-        setQuantity(productId, size, current + qty);
+        ProductLevels levels = levelsFor(productId);
+        levels.levelFor(normalize(size)).addAndGet(qty);
+        levels.total.addAndGet(qty);
     }
 
     @Override
     public void decreaseQuantity(String productId, String size, int qty) {
+        if (!tryDecreaseQuantity(productId, size, qty)) {
+            throw new IllegalStateException("Not enough stock to reduce");
+        }
+    }
+
+    @Override
+    public boolean tryDecreaseQuantity(String productId, String size, int qty) {
         if (qty < 0) {
             throw new IllegalArgumentException("Quantity cannot be negative");
         }
-        int current = getQuantity(productId, size);
-        if (qty > current) {
-            throw new IllegalStateException("Not enough stock to reduce");
+        String normalizedProductId = normalize(productId);
+        String normalizedSize = normalize(size);
+        ProductLevels levels = normalizedProductId != null ? stock.get(normalizedProductId) : null;
+        AtomicInteger level = levels != null && normalizedSize != null ? levels.sizes.get(normalizedSize) : null;
+        if (level == null) {
+            return qty == 0;
+        }
+        // Compare-and-set loop so two terminals can never both take the last unit
+        while (true) {
+            int current = level.get();
+            if (qty > current) {
+                return false;
+            }
+            if (level.compareAndSet(current, current - qty)) {
+                levels.total.addAndGet(-qty);
+                return true;
+            }
+        }
+    }
+
+    private AtomicInteger find(String productId, String size) {
+        String normalizedProductId = normalize(productId);
+        String normalizedSize = normalize(size);
+        if (normalizedProductId == null || normalizedSize == null) {
+            return null;
+        }
+        ProductLevels levels = stock.get(normalizedProductId);
+        return levels != null ? levels.sizes.get(normalizedSize) : null;
+    }
+
+    private ProductLevels levelsFor(String productId) {
+        String normalizedProductId = normalize(productId);
+        if (normalizedProductId == null) {
+            throw new IllegalArgumentException("Product id is required");
         }
-        setQuantity(productId, size, current - qty);
+        // computeIfAbsent runs the mapping once per key, so each id is queued exactly once
+        return stock.computeIfAbsent(normalizedProductId, id -> {
+            ProductLevels levels = new ProductLevels();
+            productOrder.add(id);
+            return levels;
+        });
+    }
+
+    // toUpperCase() and trim() return the same instance when there is nothing to change
+    private static String normalize(String value) {
+        return value != null ? value.toUpperCase().trim() : null;
     }
 
-    private String key(String productId, String size) {
-        return productId + "|" + size;
+    /**
+     * Per-size quantities for one product plus their running total. The total is adjusted right after each
+     * size changes, so a concurrent reader may briefly see it one update behind.
+     */
+    private static final class ProductLevels {
+        private final Map<String, AtomicInteger> sizes = new ConcurrentHashMap<>();
+        private final Collection<String> sizeOrder = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger total = new AtomicInteger();
+
+        AtomicInteger levelFor(String size) {
+            if (size == null) {
+                throw new IllegalArgumentException("Size is required");
+            }
+            return sizes.computeIfAbsent(size, s -> {
+                sizeOrder.add(s);
+                return new AtomicInteger();
+            });
+        }
+
+        void addItems(String productId, List<StockItem> items) {
+            for (String size : sizeOrder) {
+                AtomicInteger level = sizes.get(size);
+                if (level != null) {
+                    items.add(new StockItem(productId, size, level.get()));
+                }
+            }
+        }
     }
 }
@@ -7,31 +7,186 @@ import oopassignment.domain.order.*;
 import oopassignment.repository.*;
 import oopassignment.util.*;
 import oopassignment.config.*;
+import oopassignment.domain.report.SalesSummary;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 
+/**
+ * Transaction store for runs without a database. Headers are indexed by id, by time (oldest first, like the
+ * JDBC ORDER BY datetime) and per member; lines are held per transaction. All indexes are concurrent, so
+ * checkout threads append without locking and date ranges are a skip-list seek rather than a scan.
+ */
 public class InMemoryTransactionRepository implements TransactionRepository {
 
-    private final List<TransactionHeader> headers = new ArrayList<>();
-    private final List<TransactionItem> items = new ArrayList<>();
+    private static final Comparator<TransactionHeader> OLDEST_FIRST = Comparator
+            .comparing(TransactionHeader::getDateTime)
+            .thenComparing(TransactionHeader::getTransactionId);
+    private static final Comparator<TransactionHeader> NEWEST_FIRST = OLDEST_FIRST.reversed();
+
+    private final Map<String, TransactionHeader> headersById = new ConcurrentHashMap<>();
+    // Iterated weakly consistently, so streams can walk the index without a defensive copy
+    private final NavigableSet<TransactionHeader> headersByTime = new ConcurrentSkipListSet<>(OLDEST_FIRST);
+    // member id -> that member's headers, newest first, for paged history lookups
+    private final Map<String, NavigableSet<TransactionHeader>> headersByMember = new ConcurrentHashMap<>();
+    private final Map<String, List<TransactionItem>> itemsByTransaction = new ConcurrentHashMap<>();
+    // Bumped after every write; a snapshot taken at an older version is rebuilt on the next findAllHeaders
+    private final AtomicLong version = new AtomicLong();
+    private volatile HeaderSnapshot snapshot = new HeaderSnapshot(0, List.of());
 
     @Override
     public void saveTransaction(TransactionHeader header, List<TransactionItem> transactionItems) {
-        headers.add(header);
-        items.addAll(transactionItems);
+        put(header, transactionItems);
+    }
+
+    @Override
+    public void amendTransaction(TransactionHeader header, List<TransactionItem> transactionItems) {
+        put(header, transactionItems);
+    }
+
+    private void put(TransactionHeader header, List<TransactionItem> transactionItems) {
+        String transactionId = header.getTransactionId();
+        // compute() serializes writers of the same id, so a replaced header leaves every index together
+        headersById.compute(transactionId, (id, previous) -> {
+            if (previous != null) {
+                headersByTime.remove(previous);
+                if (previous.getMemberId() != null) {
+                    NavigableSet<TransactionHeader> memberHeaders = headersByMember.get(previous.getMemberId());
+                    if (memberHeaders != null) {
+                        memberHeaders.remove(previous);
+                    }
+                }
+            }
+            // Lines go in before the header is reachable by time or member, so readers never see it without them
+            itemsByTransaction.put(id, List.copyOf(transactionItems));
+            headersByTime.add(header);
+            if (header.getMemberId() != null) {
+                headersByMember.computeIfAbsent(header.getMemberId(), m -> new ConcurrentSkipListSet<>(NEWEST_FIRST))
+                        .add(header);
+            }
+            return header;
+        });
+        version.incrementAndGet();
+    }
+
+    @Override
+    public TransactionHeaderPage findHeadersByMember(String memberId, int limit, String cursor) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        NavigableSet<TransactionHeader> memberHeaders = headersByMember.get(memberId);
+        if (memberHeaders == null) {
+            return new TransactionHeaderPage(new ArrayList<>(), null);
+        }
+        if (cursor != null) {
+            TransactionHeader probe = new TransactionHeader(TransactionHeaderPage.cursorTransactionId(cursor),
+                    TransactionHeaderPage.cursorDateTime(cursor), memberId, null, 0, null);
+            memberHeaders = memberHeaders.tailSet(probe, false);
+        }
+        List<TransactionHeader> fetched = new ArrayList<>(limit + 1);
+        for (TransactionHeader header : memberHeaders) {
+            fetched.add(header);
+            if (fetched.size() > limit) {
+                break;
+            }
+        }
+        return TransactionHeaderPage.fromFetched(fetched, limit);
     }
 
+    /**
+     * Read-only list of every header, oldest first. It is shared between calls and only rebuilt on the first
+     * call after a write.
+     */
     @Override
     public List<TransactionHeader> findAllHeaders() {
-        return new ArrayList<>(headers);
+        HeaderSnapshot current = snapshot;
+        long at = version.get();
+        if (current.version != at) {
+            // Read the version before copying: a write racing the copy leaves this snapshot stale, never wrong
+            current = new HeaderSnapshot(at, Collections.unmodifiableList(new ArrayList<>(headersByTime)));
+            snapshot = current;
+        }
+        return current.headers;
+    }
+
+    @Override
+    public Stream<TransactionHeader> streamHeaders() {
+        return headersByTime.stream();
+    }
+
+    @Override
+    public Stream<TransactionHeader> streamHeadersBetween(LocalDate from, LocalDate to) {
+        return range(from, to).stream();
+    }
+
+    @Override
+    public SalesSummary summarizeSales(LocalDate from, LocalDate to) {
+        // Plain loop with primitive accumulators: no boxing and no stream pipeline per header
+        double total = 0;
+        int count = 0;
+        for (TransactionHeader header : range(from, to)) {
+            total += header.getTotalAmount();
+            count++;
+        }
+        return new SalesSummary(total, count);
     }
 
     @Override
     public List<TransactionItem> findItemsByTransaction(String transactionId) {
-        return items.stream()
-                .filter(i -> i.getTransactionId().equals(transactionId))
-                .collect(Collectors.toList());
+        List<TransactionItem> stored = transactionId != null ? itemsByTransaction.get(transactionId) : null;
+        return stored != null ? new ArrayList<>(stored) : new ArrayList<>();
+    }
+
+    @Override
+    public Map<String, List<TransactionItem>> findItemsByTransactions(Collection<String> transactionIds) {
+        Map<String, List<TransactionItem>> result = new LinkedHashMap<>();
+        for (String transactionId : transactionIds) {
+            List<TransactionItem> stored = transactionId != null ? itemsByTransaction.get(transactionId) : null;
+            if (stored != null && !stored.isEmpty()) {
+                result.putIfAbsent(transactionId, new ArrayList<>(stored));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Headers dated {@code from} through {@code to} inclusive, either bound open when null, as a view of the time
+     * index. Probes carry an empty id, which sorts before every real id at the same instant.
+     */
+    private NavigableSet<TransactionHeader> range(LocalDate from, LocalDate to) {
+        NavigableSet<TransactionHeader> range = headersByTime;
+        if (from != null) {
+            range = range.tailSet(probe(from.atStartOfDay()), true);
+        }
+        if (to != null) {
+            range = range.headSet(probe(to.plusDays(1).atStartOfDay()), false);
+        }
+        return range;
+    }
+
+    private static TransactionHeader probe(LocalDateTime at) {
+        return new TransactionHeader("", at, null, null, 0, null);
+    }
+
+    private static final class HeaderSnapshot {
+        private final long version;
+        private final List<TransactionHeader> headers;
+
+        HeaderSnapshot(long version, List<TransactionHeader> headers) {
+            this.version = version;
+            this.headers = headers;
+        }
     }
 }
@@ -17,12 +17,24 @@ import java.sql.SQLException;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 public class JdbcMemberRepository implements MemberRepository {
 
     private static final Logger LOG = LoggerFactory.getLogger(JdbcMemberRepository.class);
 
+    // Package-private so QueryPlanTest checks the plan of the statement actually run
+    static final String SEARCH_FTS_SQL = """
+            SELECT m.* FROM member_fts f JOIN member m ON m.rowid = f.rowid
+            WHERE member_fts MATCH ?
+            ORDER BY f.rank, m.name
+            LIMIT ?
+            """;
+
+    // Whether the version 7 member_fts table exists; looked up once, null until then
+    private volatile Boolean searchIndexAvailable;
+
     @Override
     public Optional<MemberRecord> findById(String memberId) {
         String sql = "SELECT * FROM member WHERE member_id = ?";
@@ -59,20 +71,60 @@ public class JdbcMemberRepository implements MemberRepository {
 
     @Override
     public List<MemberRecord> searchByName(String keyword) {
+        return searchByName(keyword, AppConfig.MEMBER_SEARCH_LIMIT);
+    }
+
+    @Override
+    public List<MemberRecord> searchByName(String keyword, int limit) {
         List<MemberRecord> results = new ArrayList<>();
-        String sql = "SELECT * FROM member WHERE lower(name) LIKE ?";
-        try (Connection conn = Database.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, "%" + keyword.toLowerCase() + "%");
+        if (keyword == null || keyword.isBlank() || limit <= 0) {
+            return results;
+        }
+        try (Connection conn = Database.getConnection()) {
+            // The trigram tokenizer cannot match fewer than three characters
+            if (keyword.length() >= TrigramIndex.GRAM && hasSearchIndex(conn)) {
+                searchFts(conn, keyword, limit, results);
+            } else {
+                searchLike(conn, keyword, limit, results);
+            }
+        } catch (SQLException e) {
+            LOG.error("Failed to search members by name {}", keyword, e);
+        }
+        return results;
+    }
+
+    private void searchFts(Connection conn, String keyword, int limit, List<MemberRecord> results)
+            throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(SEARCH_FTS_SQL)) {
+            // Quoted as one phrase so the keyword is matched as a substring, not parsed as FTS5 query syntax
+            ps.setString(1, "\"" + keyword.replace("\"", "\"\"") + "\"");
+            ps.setInt(2, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    results.add(map(rs));
+                }
+            }
+        }
+    }
+
+    private void searchLike(Connection conn, String keyword, int limit, List<MemberRecord> results)
+            throws SQLException {
+        String sql = """
+                SELECT * FROM member WHERE lower(name) LIKE ?
+                ORDER BY lower(name) LIKE ? DESC, name
+                LIMIT ?
+                """;
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            String lower = keyword.toLowerCase();
+            ps.setString(1, "%" + lower + "%");
+            ps.setString(2, lower + "%");
+            ps.setInt(3, limit);
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
                     results.add(map(rs));
                 }
             }
-        } catch (SQLException e) {
-            LOG.error("Failed to search members by name {}", keyword, e);
         }
-        return results;
     }
 
     @Override
@@ -112,21 +164,69 @@ public class JdbcMemberRepository implements MemberRepository {
                     join_date=excluded.join_date,
                     status=excluded.status
                 """;
-        try (Connection conn = Database.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, member.getMemberId());
-            ps.setString(2, member.getName());
-            ps.setString(3, member.getIcNumber());
-            ps.setDouble(4, member.getCreditBalance());
-            ps.setString(5, member.getJoinDate().toString());
-            ps.setString(6, member.getStatus().name());
-            ps.executeUpdate();
-            LOG.info("Upserted member {}", member.getMemberId());
+        try (Connection conn = Database.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                // Wallet debits upsert on every checkout; only a new or renamed member needs the search index touched
+                boolean reindex = hasSearchIndex(conn) && nameChanged(conn, member);
+                try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                    ps.setString(1, member.getMemberId());
+                    ps.setString(2, member.getName());
+                    ps.setString(3, member.getIcNumber());
+                    ps.setDouble(4, member.getCreditBalance());
+                    ps.setString(5, member.getJoinDate().toString());
+                    ps.setString(6, member.getStatus().name());
+                    ps.executeUpdate();
+                }
+                // Same transaction as the row, so the search index never disagrees with the member table
+                if (reindex) {
+                    syncSearchIndex(conn, member);
+                }
+                conn.commit();
+                LOG.info("Upserted member {}", member.getMemberId());
+            } catch (SQLException e) {
+                conn.rollback();
+                LOG.error("Failed to upsert member {}", member.getMemberId(), e);
+            }
         } catch (SQLException e) {
             LOG.error("Failed to upsert member {}", member.getMemberId(), e);
         }
     }
 
+    private boolean nameChanged(Connection conn, MemberRecord member) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT name FROM member WHERE member_id = ?")) {
+            ps.setString(1, member.getMemberId());
+            try (ResultSet rs = ps.executeQuery()) {
+                return !rs.next() || !Objects.equals(rs.getString("name"), member.getName());
+            }
+        }
+    }
+
+    private void syncSearchIndex(Connection conn, MemberRecord member) throws SQLException {
+        // member_fts shares the member rowid, which an upsert never changes, so REPLACE swaps the indexed name
+        String sql = "INSERT OR REPLACE INTO member_fts(rowid, name) SELECT rowid, name FROM member WHERE member_id = ?";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, member.getMemberId());
+            ps.executeUpdate();
+        }
+    }
+
+    private boolean hasSearchIndex(Connection conn) throws SQLException {
+        Boolean available = searchIndexAvailable;
+        if (available == null) {
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = 'member_fts'");
+                 ResultSet rs = ps.executeQuery()) {
+                available = rs.next();
+            }
+            if (!available) {
+                LOG.warn("member_fts search index missing; member name search falls back to LIKE");
+            }
+            searchIndexAvailable = available;
+        }
+        return available;
+    }
+
     private MemberRecord map(ResultSet rs) throws SQLException {
         return new MemberRecord(
                 rs.getString("member_id"),
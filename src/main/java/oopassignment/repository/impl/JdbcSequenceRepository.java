@@ -0,0 +1,88 @@
+package oopassignment.repository.impl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.function.LongSupplier;
+import oopassignment.config.Database;
+import oopassignment.repository.SequenceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class JdbcSequenceRepository implements SequenceRepository {
+
+    private static final Logger LOG = LoggerFactory.getLogger(JdbcSequenceRepository.class);
+
+    @Override
+    public long reserveBlock(String name, int blockSize, LongSupplier currentMax) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Block size must be positive");
+        }
+        try {
+            if (!sequenceExists(name)) {
+                // currentMax scans a table on a connection of its own, so it runs before ours is borrowed;
+                // holding one across it would deadlock a pool of size one
+                long firstValue = currentMax.getAsLong() + 1;
+                try (Connection conn = Database.getConnection()) {
+                    seed(conn, name, firstValue);
+                }
+            }
+        } catch (SQLException e) {
+            LOG.error("Failed to seed sequence {}", name, e);
+            throw new IllegalStateException("Unable to allocate id from sequence " + name, e);
+        }
+        try (Connection conn = Database.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                // The UPDATE takes the write lock, so no other process can hand out the same block
+                try (PreparedStatement ps = conn.prepareStatement(
+                        "UPDATE id_sequence SET next_value = next_value + ? WHERE name = ?")) {
+                    ps.setInt(1, blockSize);
+                    ps.setString(2, name);
+                    ps.executeUpdate();
+                }
+                long next;
+                try (PreparedStatement ps = conn.prepareStatement("SELECT next_value FROM id_sequence WHERE name = ?")) {
+                    ps.setString(1, name);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        if (!rs.next()) {
+                            throw new SQLException("Sequence " + name + " missing after seeding");
+                        }
+                        next = rs.getLong("next_value");
+                    }
+                }
+                conn.commit();
+                LOG.debug("Reserved {} ids from sequence {} starting at {}", blockSize, name, next - blockSize);
+                return next - blockSize;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            LOG.error("Failed to reserve ids from sequence {}", name, e);
+            throw new IllegalStateException("Unable to allocate id from sequence " + name, e);
+        }
+    }
+
+    private boolean sequenceExists(String name) throws SQLException {
+        try (Connection conn = Database.getConnection();
+             PreparedStatement ps = conn.prepareStatement("SELECT 1 FROM id_sequence WHERE name = ?")) {
+            ps.setString(1, name);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    private void seed(Connection conn, String name, long firstValue) throws SQLException {
+        // Another process may seed first; its value wins and ours is dropped
+        try (PreparedStatement ps = conn.prepareStatement(
+                "INSERT INTO id_sequence(name, next_value) VALUES(?, ?) ON CONFLICT(name) DO NOTHING")) {
+            ps.setString(1, name);
+            ps.setLong(2, firstValue);
+            ps.executeUpdate();
+        }
+        LOG.info("Seeded id sequence {} at {}", name, firstValue);
+    }
+}
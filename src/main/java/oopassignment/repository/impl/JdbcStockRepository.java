@@ -15,19 +15,30 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 
 public class JdbcStockRepository implements StockRepository {
 
     private static final Logger LOG = LoggerFactory.getLogger(JdbcStockRepository.class);
+    private static final int PRODUCT_FETCH_CHUNK = 500;
+
+    // COLLATE NOCASE keeps these lookups case-insensitive while still using idx_stock_product_size_nocase;
+    // package-private so QueryPlanTest checks the plans of the statements actually run
+    static final String FIND_BY_PRODUCT_SQL = "SELECT * FROM stock WHERE product_id = ? COLLATE NOCASE";
+    static final String QUANTITY_SQL =
+            "SELECT quantity FROM stock WHERE product_id = ? COLLATE NOCASE AND size = ? COLLATE NOCASE";
+    static final String TOTAL_QUANTITY_SQL = "SELECT SUM(quantity) AS total FROM stock WHERE product_id = ? COLLATE NOCASE";
 
     @Override
     public List<StockItem> findByProductId(String productId) {
-        // Use UPPER() for case-insensitive comparison
-        String sql = "SELECT * FROM stock WHERE UPPER(product_id) = UPPER(?)";
         List<StockItem> list = new ArrayList<>();
         try (Connection conn = Database.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
+             PreparedStatement ps = conn.prepareStatement(FIND_BY_PRODUCT_SQL)) {
             ps.setString(1, productId);
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
@@ -40,12 +51,61 @@ public class JdbcStockRepository implements StockRepository {
         return list;
     }
 
+    @Override
+    public Map<String, List<StockItem>> findAllGroupedByProduct() {
+        Map<String, List<StockItem>> result = new LinkedHashMap<>();
+        try (Connection conn = Database.getConnection();
+             PreparedStatement ps = conn.prepareStatement("SELECT * FROM stock ORDER BY product_id, size");
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                addGrouped(result, map(rs));
+            }
+        } catch (SQLException e) {
+            LOG.error("Failed to fetch stock rows", e);
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, List<StockItem>> findByProductIds(Collection<String> productIds) {
+        Map<String, List<StockItem>> result = new LinkedHashMap<>();
+        List<String> ids = new ArrayList<>(new LinkedHashSet<>(productIds));
+        if (ids.isEmpty()) {
+            return result;
+        }
+        // One connection for the whole listing; IN lists are chunked to stay well under SQLite's parameter limit
+        try (Connection conn = Database.getConnection()) {
+            for (int start = 0; start < ids.size(); start += PRODUCT_FETCH_CHUNK) {
+                List<String> chunk = ids.subList(start, Math.min(start + PRODUCT_FETCH_CHUNK, ids.size()));
+                // Chunk-sized IN lists are one-off SQL; the overload keeps them out of the statement cache
+                try (PreparedStatement ps = conn.prepareStatement(findByProductIdsSql(chunk.size()),
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        ps.setString(i + 1, chunk.get(i));
+                    }
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            addGrouped(result, map(rs));
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            LOG.error("Failed to fetch stock rows for {} products", ids.size(), e);
+        }
+        return result;
+    }
+
+    static String findByProductIdsSql(int count) {
+        return "SELECT * FROM stock WHERE product_id COLLATE NOCASE IN ("
+                + String.join(",", Collections.nCopies(count, "?"))
+                + ") ORDER BY product_id, size";
+    }
+
     @Override
     public int getQuantity(String productId, String size) {
-        // Use UPPER() for case-insensitive comparison
-        String sql = "SELECT quantity FROM stock WHERE UPPER(product_id) = UPPER(?) AND UPPER(size) = UPPER(?)";
         try (Connection conn = Database.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
+             PreparedStatement ps = conn.prepareStatement(QUANTITY_SQL)) {
             ps.setString(1, productId);
             ps.setString(2, size);
             try (ResultSet rs = ps.executeQuery()) {
@@ -61,9 +121,8 @@ public class JdbcStockRepository implements StockRepository {
 
     @Override
     public int getTotalQuantity(String productId) {
-        String sql = "SELECT SUM(quantity) AS total FROM stock WHERE product_id = ?";
         try (Connection conn = Database.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
+             PreparedStatement ps = conn.prepareStatement(TOTAL_QUANTITY_SQL)) {
             ps.setString(1, productId);
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
@@ -100,14 +159,65 @@ public class JdbcStockRepository implements StockRepository {
 
     @Override
     public void increaseQuantity(String productId, String size, int qty) {
-        int current = getQuantity(productId, size);
-        setQuantity(productId, size, current + qty);
+        // Normalize to uppercase before storing
+        String normalizedProductId = productId != null ? productId.toUpperCase().trim() : null;
+        String normalizedSize = size != null ? size.toUpperCase().trim() : null;
+        String sql = """
+                INSERT INTO stock(product_id,size,quantity)
+                VALUES(?,?,?)
+                ON CONFLICT(product_id,size) DO UPDATE SET quantity=quantity+excluded.quantity
+                """;
+        try (Connection conn = Database.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, normalizedProductId);
+            ps.setString(2, normalizedSize);
+            ps.setInt(3, qty);
+            ps.executeUpdate();
+            LOG.info("Increased stock for {} size {} by {}", normalizedProductId, normalizedSize, qty);
+        } catch (SQLException e) {
+            LOG.error("Failed to increase quantity for {} size {}", normalizedProductId, normalizedSize, e);
+        }
     }
 
     @Override
     public void decreaseQuantity(String productId, String size, int qty) {
-        int current = getQuantity(productId, size);
-        setQuantity(productId, size, current - qty);
+        if (!tryDecreaseQuantity(productId, size, qty)) {
+            LOG.warn("Not enough stock to reduce {} size {} by {}", productId, size, qty);
+        }
+    }
+
+    @Override
+    public boolean tryDecreaseQuantity(String productId, String size, int qty) {
+        // Check and write in one statement so concurrent terminals cannot both take the last unit. Exactly one
+        // row is targeted: legacy rows differing only in case (p001/P001) must not all be decremented, so the
+        // normalized key wins when both exist
+        String sql = """
+                UPDATE stock SET quantity = quantity - ?
+                WHERE rowid = (
+                    SELECT rowid FROM stock
+                    WHERE product_id = ? COLLATE NOCASE AND size = ? COLLATE NOCASE AND quantity >= ?
+                    ORDER BY product_id = ? AND size = ? DESC
+                    LIMIT 1)
+                """;
+        String normalizedProductId = productId != null ? productId.toUpperCase().trim() : null;
+        String normalizedSize = size != null ? size.toUpperCase().trim() : null;
+        try (Connection conn = Database.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, qty);
+            ps.setString(2, productId);
+            ps.setString(3, size);
+            ps.setInt(4, qty);
+            ps.setString(5, normalizedProductId);
+            ps.setString(6, normalizedSize);
+            return ps.executeUpdate() == 1;
+        } catch (SQLException e) {
+            LOG.error("Failed to decrease quantity for {} size {}", productId, size, e);
+        }
+        return false;
+    }
+
+    private void addGrouped(Map<String, List<StockItem>> result, StockItem item) {
+        result.computeIfAbsent(item.getProductId().toUpperCase(), id -> new ArrayList<>()).add(item);
     }
 
     private StockItem map(ResultSet rs) throws SQLException {
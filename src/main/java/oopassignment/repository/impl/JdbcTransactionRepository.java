@@ -7,6 +7,8 @@ import oopassignment.domain.order.*;
 import oopassignment.repository.*;
 import oopassignment.util.*;
 import oopassignment.config.*;
+import oopassignment.domain.report.SalesSummary;
+import oopassignment.exception.PersistenceException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -14,66 +16,233 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import java.util.stream.Collectors;
 
 public class JdbcTransactionRepository implements TransactionRepository {
 
     private static final Logger LOG = LoggerFactory.getLogger(JdbcTransactionRepository.class);
+    private static final int ITEM_FETCH_CHUNK = 500;
+
+    private static final String INSERT_HEADER_SQL = """
+            INSERT INTO transaction_header(transaction_id, datetime, member_id, customer_type, total_amount, payment_method)
+            VALUES(?,?,?,?,?,?)
+            """;
+    private static final String INSERT_ITEM_SQL = """
+            INSERT INTO transaction_item(transaction_id, line_no, product_id, size, quantity, unit_price)
+            VALUES(?,?,?,?,?,?)
+            """;
+    private static final String UPSERT_HEADER_SQL = """
+            INSERT INTO transaction_header(transaction_id, datetime, member_id, customer_type, total_amount, payment_method)
+            VALUES(?,?,?,?,?,?)
+            ON CONFLICT(transaction_id) DO UPDATE SET
+                datetime=excluded.datetime,
+                member_id=excluded.member_id,
+                customer_type=excluded.customer_type,
+                total_amount=excluded.total_amount,
+                payment_method=excluded.payment_method
+            """;
+    private static final String UPSERT_ITEM_SQL = """
+            INSERT INTO transaction_item(transaction_id, line_no, product_id, size, quantity, unit_price)
+            VALUES(?,?,?,?,?,?)
+            ON CONFLICT(transaction_id, line_no) DO UPDATE SET
+                product_id=excluded.product_id,
+                size=excluded.size,
+                quantity=excluded.quantity,
+                unit_price=excluded.unit_price
+            """;
+    // Keyset paging on (datetime, transaction_id) walks idx_transaction_header_member_keyset backwards;
+    // no OFFSET, so deep pages cost the same as the first
+    static final String MEMBER_FIRST_PAGE_SQL = """
+            SELECT * FROM transaction_header WHERE member_id = ?
+            ORDER BY datetime DESC, transaction_id DESC LIMIT ?
+            """;
+    static final String MEMBER_NEXT_PAGE_SQL = """
+            SELECT * FROM transaction_header WHERE member_id = ? AND (datetime, transaction_id) < (?, ?)
+            ORDER BY datetime DESC, transaction_id DESC LIMIT ?
+            """;
+    static final String ITEMS_BY_TRANSACTION_SQL = "SELECT * FROM transaction_item WHERE transaction_id = ? ORDER BY line_no";
+    private static final String ROLLUP_SQL = """
+            INSERT INTO daily_sales(sale_date, customer_type, payment_method, txn_count, total_amount)
+            VALUES(?,?,?,?,?)
+            ON CONFLICT(sale_date, customer_type, payment_method) DO UPDATE SET
+                txn_count=txn_count + excluded.txn_count,
+                total_amount=total_amount + excluded.total_amount
+            """;
 
     @Override
     public void saveTransaction(TransactionHeader header, List<TransactionItem> items) {
-        String headerSql = """
-                INSERT INTO transaction_header(transaction_id, datetime, member_id, customer_type, total_amount, payment_method)
-                VALUES(?,?,?,?,?,?)
-                ON CONFLICT(transaction_id) DO UPDATE SET
-                    datetime=excluded.datetime,
-                    member_id=excluded.member_id,
-                    customer_type=excluded.customer_type,
-                    total_amount=excluded.total_amount,
-                    payment_method=excluded.payment_method
-                """;
-        String itemSql = """
-                INSERT INTO transaction_item(transaction_id, line_no, product_id, size, quantity, unit_price)
-                VALUES(?,?,?,?,?,?)
-                ON CONFLICT(transaction_id, line_no) DO UPDATE SET
-                    product_id=excluded.product_id,
-                    size=excluded.size,
-                    quantity=excluded.quantity,
-                    unit_price=excluded.unit_price
-                """;
         try (Connection conn = Database.getConnection()) {
             conn.setAutoCommit(false);
             try {
-                try (PreparedStatement ps = conn.prepareStatement(headerSql)) {
-                    ps.setString(1, header.getTransactionId());
-                    ps.setString(2, header.getDateTime().toString());
-                    ps.setString(3, header.getMemberId());
-                    ps.setString(4, header.getCustomerType());
-                    ps.setDouble(5, header.getTotalAmount());
-                    ps.setString(6, header.getPaymentMethod());
-                    ps.executeUpdate();
-                }
-                for (TransactionItem item : items) {
-                    try (PreparedStatement psItem = conn.prepareStatement(itemSql)) {
-                        psItem.setString(1, item.getTransactionId());
-                        psItem.setInt(2, item.getLineNo());
-                        psItem.setString(3, item.getProductId());
-                        psItem.setString(4, item.getSize());
-                        psItem.setInt(5, item.getQuantity());
-                        psItem.setDouble(6, item.getUnitPrice());
-                        psItem.executeUpdate();
-                    }
-                }
+                writeTransaction(conn, header, items, INSERT_HEADER_SQL, INSERT_ITEM_SQL);
+                updateRollup(conn, List.of(header), 1);
                 conn.commit();
                 LOG.info("Transaction {} persisted with {} line items", header.getTransactionId(), items.size());
             } catch (SQLException e) {
                 conn.rollback();
                 LOG.error("Failed to save transaction {}", header.getTransactionId(), e);
+                throw new PersistenceException("Failed to save transaction " + header.getTransactionId(), e);
             }
         } catch (SQLException e) {
             LOG.error("DB error while saving transaction {}", header.getTransactionId(), e);
+            throw new PersistenceException("Failed to save transaction " + header.getTransactionId(), e);
+        }
+    }
+
+    /**
+     * Persist several new transactions in one DB transaction (one commit, one fsync). All or nothing.
+     *
+     * @return true if every transaction was committed
+     */
+    public boolean saveTransactions(Map<TransactionHeader, List<TransactionItem>> transactions) {
+        try (Connection conn = Database.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                for (Map.Entry<TransactionHeader, List<TransactionItem>> entry : transactions.entrySet()) {
+                    writeTransaction(conn, entry.getKey(), entry.getValue(), INSERT_HEADER_SQL, INSERT_ITEM_SQL);
+                }
+                updateRollup(conn, transactions.keySet(), 1);
+                conn.commit();
+                LOG.info("Group commit persisted {} transactions", transactions.size());
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                LOG.warn("Group commit of {} transactions failed", transactions.size(), e);
+            }
+        } catch (SQLException e) {
+            LOG.error("DB error during group commit of {} transactions", transactions.size(), e);
+        }
+        return false;
+    }
+
+    @Override
+    public void amendTransaction(TransactionHeader header, List<TransactionItem> items) {
+        try (Connection conn = Database.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                // Take the old header's contribution out of the rollup before it is overwritten
+                TransactionHeader previous = findHeader(conn, header.getTransactionId());
+                if (previous != null) {
+                    updateRollup(conn, List.of(previous), -1);
+                }
+                writeTransaction(conn, header, items, UPSERT_HEADER_SQL, UPSERT_ITEM_SQL);
+                updateRollup(conn, List.of(header), 1);
+                int maxLineNo = 0;
+                for (TransactionItem item : items) {
+                    maxLineNo = Math.max(maxLineNo, item.getLineNo());
+                }
+                try (PreparedStatement ps = conn.prepareStatement(
+                        "DELETE FROM transaction_item WHERE transaction_id = ? AND line_no > ?")) {
+                    ps.setString(1, header.getTransactionId());
+                    ps.setInt(2, maxLineNo);
+                    ps.executeUpdate();
+                }
+                conn.commit();
+                LOG.info("Transaction {} amended with {} line items", header.getTransactionId(), items.size());
+            } catch (SQLException e) {
+                conn.rollback();
+                LOG.error("Failed to amend transaction {}", header.getTransactionId(), e);
+                throw new PersistenceException("Failed to amend transaction " + header.getTransactionId(), e);
+            }
+        } catch (SQLException e) {
+            LOG.error("DB error while amending transaction {}", header.getTransactionId(), e);
+            throw new PersistenceException("Failed to amend transaction " + header.getTransactionId(), e);
+        }
+    }
+
+    /**
+     * Write one header and its lines on the caller's transaction. Lines go through a single prepared statement
+     * and one JDBC batch, so a large cart costs one prepare and one round trip for its items.
+     */
+    private void writeTransaction(Connection conn, TransactionHeader header, List<TransactionItem> items,
+                                  String headerSql, String itemSql) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(headerSql)) {
+            ps.setString(1, header.getTransactionId());
+            ps.setString(2, header.getDateTime().toString());
+            ps.setString(3, header.getMemberId());
+            ps.setString(4, header.getCustomerType());
+            ps.setDouble(5, header.getTotalAmount());
+            ps.setString(6, header.getPaymentMethod());
+            ps.executeUpdate();
+        }
+        if (items.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement psItem = conn.prepareStatement(itemSql)) {
+            for (TransactionItem item : items) {
+                psItem.setString(1, item.getTransactionId());
+                psItem.setInt(2, item.getLineNo());
+                psItem.setString(3, item.getProductId());
+                psItem.setString(4, item.getSize());
+                psItem.setInt(5, item.getQuantity());
+                psItem.setDouble(6, item.getUnitPrice());
+                psItem.addBatch();
+            }
+            psItem.executeBatch();
+        }
+    }
+
+    /**
+     * Add ({@code sign} 1) or remove ({@code sign} -1) headers from daily_sales on the caller's transaction.
+     * Headers sharing a day, customer type and payment method are folded first, so a group commit touches each
+     * rollup row once.
+     */
+    private void updateRollup(Connection conn, Collection<TransactionHeader> headers, int sign) throws SQLException {
+        Map<List<String>, double[]> deltas = new LinkedHashMap<>();
+        for (TransactionHeader header : headers) {
+            List<String> key = List.of(header.getDateTime().toLocalDate().toString(), header.getCustomerType(),
+                    header.getPaymentMethod());
+            double[] delta = deltas.computeIfAbsent(key, k -> new double[2]);
+            delta[0] += sign;
+            delta[1] += sign * header.getTotalAmount();
+        }
+        try (PreparedStatement ps = conn.prepareStatement(ROLLUP_SQL)) {
+            for (Map.Entry<List<String>, double[]> entry : deltas.entrySet()) {
+                List<String> key = entry.getKey();
+                ps.setString(1, key.get(0));
+                ps.setString(2, key.get(1));
+                ps.setString(3, key.get(2));
+                ps.setInt(4, (int) entry.getValue()[0]);
+                ps.setDouble(5, entry.getValue()[1]);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+        if (sign < 0) {
+            try (PreparedStatement ps = conn.prepareStatement("""
+                    DELETE FROM daily_sales
+                    WHERE sale_date = ? AND customer_type = ? AND payment_method = ? AND txn_count <= 0
+                    """)) {
+                for (List<String> key : deltas.keySet()) {
+                    ps.setString(1, key.get(0));
+                    ps.setString(2, key.get(1));
+                    ps.setString(3, key.get(2));
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+        }
+    }
+
+    private TransactionHeader findHeader(Connection conn, String transactionId) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT * FROM transaction_header WHERE transaction_id = ?")) {
+            ps.setString(1, transactionId);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? mapHeader(rs) : null;
+            }
         }
     }
 
@@ -93,12 +262,169 @@ public class JdbcTransactionRepository implements TransactionRepository {
         return headers;
     }
 
+    @Override
+    public Stream<TransactionHeader> streamHeaders() {
+        return streamHeaders("SELECT * FROM transaction_header ORDER BY datetime", ps -> { });
+    }
+
+    @Override
+    public Stream<TransactionHeader> streamHeadersBetween(LocalDate from, LocalDate to) {
+        List<String> params = new ArrayList<>(2);
+        return streamHeaders(headersBetweenSql(from, to, params), ps -> bindAll(ps, params));
+    }
+
+    static String headersBetweenSql(LocalDate from, LocalDate to, List<String> params) {
+        return "SELECT * FROM transaction_header" + dateRangeClause(from, to, params) + " ORDER BY datetime";
+    }
+
+    @Override
+    public TransactionHeaderPage findHeadersByMember(String memberId, int limit, String cursor) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        String sql = cursor == null ? MEMBER_FIRST_PAGE_SQL : MEMBER_NEXT_PAGE_SQL;
+        List<TransactionHeader> page = new ArrayList<>(limit + 1);
+        try (Connection conn = Database.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            int index = 1;
+            ps.setString(index++, memberId);
+            if (cursor != null) {
+                ps.setString(index++, TransactionHeaderPage.cursorDateTime(cursor).toString());
+                ps.setString(index++, TransactionHeaderPage.cursorTransactionId(cursor));
+            }
+            ps.setInt(index, limit + 1);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    page.add(mapHeader(rs));
+                }
+            }
+        } catch (SQLException e) {
+            LOG.error("Failed to fetch transactions for member {}", memberId, e);
+        }
+        return TransactionHeaderPage.fromFetched(page, limit);
+    }
+
+    @Override
+    public SalesSummary summarizeSales(LocalDate from, LocalDate to) {
+        List<String> params = new ArrayList<>(2);
+        try (Connection conn = Database.getConnection();
+             PreparedStatement ps = conn.prepareStatement(summarizeSalesSql(from, to, params))) {
+            bindAll(ps, params);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return new SalesSummary(rs.getDouble("total"), rs.getInt("cnt"));
+                }
+            }
+        } catch (SQLException e) {
+            LOG.error("Failed to summarize sales from {} to {}", from, to, e);
+        }
+        return new SalesSummary(0, 0);
+    }
+
+    /**
+     * Summed from the daily_sales rollup: a few rows per day in range, whatever the number of headers.
+     */
+    static String summarizeSalesSql(LocalDate from, LocalDate to, List<String> params) {
+        StringBuilder sql = new StringBuilder(
+                "SELECT COALESCE(SUM(total_amount), 0) AS total, COALESCE(SUM(txn_count), 0) AS cnt FROM daily_sales");
+        if (from != null) {
+            sql.append(" WHERE sale_date >= ?");
+            params.add(from.toString());
+        }
+        if (to != null) {
+            sql.append(from != null ? " AND" : " WHERE").append(" sale_date <= ?");
+            params.add(to.toString());
+        }
+        return sql.toString();
+    }
+
+    /**
+     * WHERE clause for an inclusive day range. datetime is ISO-8601 text, so day bounds compare correctly as
+     * strings and can seek the datetime index. Open bounds are left out rather than COALESCEd, which would hide
+     * the column from the index.
+     */
+    private static String dateRangeClause(LocalDate from, LocalDate to, List<String> params) {
+        StringBuilder where = new StringBuilder();
+        if (from != null) {
+            where.append(" WHERE datetime >= ?");
+            params.add(from.toString());
+        }
+        if (to != null) {
+            where.append(from != null ? " AND" : " WHERE").append(" datetime < ?");
+            params.add(to.plusDays(1).toString());
+        }
+        return where.toString();
+    }
+
+    private static void bindAll(PreparedStatement ps, List<String> params) throws SQLException {
+        for (int i = 0; i < params.size(); i++) {
+            ps.setString(i + 1, params.get(i));
+        }
+    }
+
+    /**
+     * Run a header query and expose the open cursor as a stream; the ResultSet, statement and connection are
+     * released when the stream is closed. A read error part way through throws {@link PersistenceException}.
+     */
+    private Stream<TransactionHeader> streamHeaders(String sql, StatementBinder binder) {
+        Connection conn = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            conn = Database.getConnection();
+            ps = conn.prepareStatement(sql);
+            binder.bind(ps);
+            rs = ps.executeQuery();
+        } catch (SQLException e) {
+            LOG.error("Failed to open transaction header cursor", e);
+            closeQuietly(rs, ps, conn);
+            return Stream.empty();
+        }
+        ResultSet cursor = rs;
+        Spliterator<TransactionHeader> spliterator = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super TransactionHeader> action) {
+                try {
+                    if (!cursor.next()) {
+                        return false;
+                    }
+                    action.accept(mapHeader(cursor));
+                    return true;
+                } catch (SQLException e) {
+                    // Ending the stream here would hand callers a partial history that looks complete
+                    LOG.error("Failed to read transaction header cursor", e);
+                    throw new PersistenceException("Failed to read transaction headers", e);
+                }
+            }
+        };
+        AutoCloseable[] resources = {rs, ps, conn};
+        return StreamSupport.stream(spliterator, false).onClose(() -> closeQuietly(resources));
+    }
+
+    private static void closeQuietly(AutoCloseable... resources) {
+        for (AutoCloseable resource : resources) {
+            if (resource == null) {
+                continue;
+            }
+            try {
+                resource.close();
+            } catch (Exception e) {
+                LOG.warn("Failed to close {}", resource, e);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface StatementBinder {
+        void bind(PreparedStatement ps) throws SQLException;
+    }
+
     @Override
     public List<TransactionItem> findItemsByTransaction(String transactionId) {
         List<TransactionItem> items = new ArrayList<>();
-        String sql = "SELECT * FROM transaction_item WHERE transaction_id = ? ORDER BY line_no";
         try (Connection conn = Database.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
+             PreparedStatement ps = conn.prepareStatement(ITEMS_BY_TRANSACTION_SQL)) {
             ps.setString(1, transactionId);
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
@@ -111,6 +437,41 @@ public class JdbcTransactionRepository implements TransactionRepository {
         return items.stream().collect(Collectors.toList());
     }
 
+    @Override
+    public Map<String, List<TransactionItem>> findItemsByTransactions(Collection<String> transactionIds) {
+        Map<String, List<TransactionItem>> result = new LinkedHashMap<>();
+        List<String> ids = new ArrayList<>(new LinkedHashSet<>(transactionIds));
+        if (ids.isEmpty()) {
+            return result;
+        }
+        // One connection for the whole history; IN lists are chunked to stay well under SQLite's parameter limit
+        try (Connection conn = Database.getConnection()) {
+            for (int start = 0; start < ids.size(); start += ITEM_FETCH_CHUNK) {
+                List<String> chunk = ids.subList(start, Math.min(start + ITEM_FETCH_CHUNK, ids.size()));
+                // Chunk-sized IN lists are one-off SQL; the overload keeps them out of the statement cache
+                try (PreparedStatement ps = conn.prepareStatement(findItemsByTransactionsSql(chunk.size()),
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                    bindAll(ps, chunk);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            TransactionItem item = mapItem(rs);
+                            result.computeIfAbsent(item.getTransactionId(), id -> new ArrayList<>()).add(item);
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            LOG.error("Failed to fetch items for {} transactions", ids.size(), e);
+        }
+        return result;
+    }
+
+    static String findItemsByTransactionsSql(int count) {
+        return "SELECT * FROM transaction_item WHERE transaction_id IN ("
+                + String.join(",", Collections.nCopies(count, "?"))
+                + ") ORDER BY transaction_id, line_no";
+    }
+
     private TransactionHeader mapHeader(ResultSet rs) throws SQLException {
         // Handle migration: if customer_id exists, convert to customer_type
         String customerType;
@@ -0,0 +1,88 @@
+package oopassignment.repository.impl;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+import oopassignment.domain.order.TransactionHeader;
+import oopassignment.domain.order.TransactionHeaderPage;
+import oopassignment.domain.order.TransactionItem;
+import oopassignment.domain.report.SalesSummary;
+import oopassignment.repository.TransactionListener;
+import oopassignment.repository.TransactionRepository;
+
+/**
+ * Passes every call to {@code delegate} and, once a save or amend returns, tells the registered
+ * {@link TransactionListener}s. Reads are not intercepted. A delegate that could not commit throws (see
+ * {@link TransactionRepository#saveTransaction}), so listeners only ever hear about committed writes.
+ */
+public class NotifyingTransactionRepository implements TransactionRepository {
+
+    private final TransactionRepository delegate;
+    private final List<TransactionListener> listeners = new CopyOnWriteArrayList<>();
+
+    public NotifyingTransactionRepository(TransactionRepository delegate) {
+        this.delegate = delegate;
+    }
+
+    public void addListener(TransactionListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(TransactionListener listener) {
+        listeners.remove(listener);
+    }
+
+    @Override
+    public void saveTransaction(TransactionHeader header, List<TransactionItem> items) {
+        delegate.saveTransaction(header, items);
+        for (TransactionListener listener : listeners) {
+            listener.transactionSaved(header, items);
+        }
+    }
+
+    @Override
+    public void amendTransaction(TransactionHeader header, List<TransactionItem> items) {
+        delegate.amendTransaction(header, items);
+        for (TransactionListener listener : listeners) {
+            listener.transactionAmended(header, items);
+        }
+    }
+
+    @Override
+    public List<TransactionHeader> findAllHeaders() {
+        return delegate.findAllHeaders();
+    }
+
+    @Override
+    public Stream<TransactionHeader> streamHeaders() {
+        return delegate.streamHeaders();
+    }
+
+    @Override
+    public Stream<TransactionHeader> streamHeadersBetween(LocalDate from, LocalDate to) {
+        return delegate.streamHeadersBetween(from, to);
+    }
+
+    @Override
+    public SalesSummary summarizeSales(LocalDate from, LocalDate to) {
+        return delegate.summarizeSales(from, to);
+    }
+
+    @Override
+    public TransactionHeaderPage findHeadersByMember(String memberId, int limit, String cursor) {
+        return delegate.findHeadersByMember(memberId, limit, cursor);
+    }
+
+    @Override
+    public List<TransactionItem> findItemsByTransaction(String transactionId) {
+        return delegate.findItemsByTransaction(transactionId);
+    }
+
+    @Override
+    public Map<String, List<TransactionItem>> findItemsByTransactions(Collection<String> transactionIds) {
+        return delegate.findItemsByTransactions(transactionIds);
+    }
+}
@@ -22,10 +22,16 @@ public class EmployeeService {
 
     private final EmployeeRepository repository;
     private final PasswordHasher hasher;
+    private final IdAllocator idAllocator;
 
     public EmployeeService(EmployeeRepository repository, PasswordHasher hasher) {
+        this(repository, hasher, new IdAllocator());
+    }
+
+    public EmployeeService(EmployeeRepository repository, PasswordHasher hasher, IdAllocator idAllocator) {
         this.repository = repository;
         this.hasher = hasher;
+        this.idAllocator = idAllocator;
     }
 
     // Backward-compatible signature that ignores displayName (not stored in current model)
@@ -133,21 +139,9 @@ public class EmployeeService {
 
     private String generateId(Role role) {
         String prefix = role == Role.MANAGER ? "M" : "S";
-        int max = 0;
-        for (EmployeeRecord employee : repository.findAll()) {
-            String empId = employee.getId();
-            if (empId != null && empId.startsWith(prefix)) {
-                try {
-                    int num = Integer.parseInt(empId.substring(1));
-                    if (num > max) {
-                        max = num;
-                    }
-                } catch (NumberFormatException ignore) {
-                    // skip malformed ids
-                }
-            }
-        }
-        return prefix + String.format("%03d", max + 1);
+        return idAllocator.nextId("employee." + prefix, prefix, 3,
+                () -> IdAllocator.maxSuffix(repository.findAll().stream().map(EmployeeRecord::getId).toList(), prefix),
+                id -> repository.findById(id).isPresent());
     }
 
     public List<EmployeeRecord> listByRole(Role role) {
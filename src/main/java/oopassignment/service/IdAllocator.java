@@ -0,0 +1,83 @@
+package oopassignment.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import oopassignment.config.AppConfig;
+import oopassignment.repository.SequenceRepository;
+import oopassignment.repository.impl.InMemorySequenceRepository;
+
+/**
+ * Hands out ids like {@code T0001} or {@code MB001} from blocks reserved in a {@link SequenceRepository}, so only
+ * one call in every {@code blockSize} touches storage. Numbers keep growing past the padded width
+ * ({@code T9999} is followed by {@code T10000}).
+ */
+public class IdAllocator {
+
+    private final SequenceRepository sequenceRepository;
+    private final int blockSize;
+    private final Map<String, long[]> blocks = new HashMap<>(); // name -> {next, limit}
+
+    /**
+     * Process-local allocator seeded from the existing ids, for in-memory repositories.
+     */
+    public IdAllocator() {
+        this(new InMemorySequenceRepository(), AppConfig.ID_BLOCK_SIZE);
+    }
+
+    public IdAllocator(SequenceRepository sequenceRepository, int blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Block size must be positive");
+        }
+        this.sequenceRepository = sequenceRepository;
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Next value of the named sequence. {@code currentMax} is only consulted the first time the sequence is
+     * used against its storage.
+     */
+    public synchronized long next(String sequence, LongSupplier currentMax) {
+        long[] block = blocks.get(sequence);
+        if (block == null || block[0] >= block[1]) {
+            long first = sequenceRepository.reserveBlock(sequence, blockSize, currentMax);
+            block = new long[]{first, first + blockSize};
+            blocks.put(sequence, block);
+        }
+        return block[0]++;
+    }
+
+    /**
+     * Next formatted id, skipping any that {@code taken} reports as already in use (e.g. saved directly with
+     * an explicit id).
+     */
+    public String nextId(String sequence, String prefix, int width, LongSupplier currentMax, Predicate<String> taken) {
+        String id;
+        do {
+            id = format(prefix, width, next(sequence, currentMax));
+        } while (taken.test(id));
+        return id;
+    }
+
+    public static String format(String prefix, int width, long value) {
+        return prefix + String.format("%0" + width + "d", value);
+    }
+
+    /**
+     * Highest numeric suffix among ids with the given prefix; malformed ids are ignored.
+     */
+    public static long maxSuffix(Iterable<String> ids, String prefix) {
+        long max = 0;
+        for (String id : ids) {
+            if (id != null && id.startsWith(prefix)) {
+                try {
+                    max = Math.max(max, Long.parseLong(id.substring(prefix.length())));
+                } catch (NumberFormatException ignore) {
+                    // skip malformed ids
+                }
+            }
+        }
+        return max;
+    }
+}
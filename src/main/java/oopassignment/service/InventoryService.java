@@ -33,10 +33,10 @@ public class InventoryService {
         // Normalize to uppercase for case-insensitive comparison
         String normalizedProductId = productId != null ? productId.toUpperCase().trim() : null;
         String normalizedSize = size != null ? size.toUpperCase().trim() : null;
-        if (!isStockAvailable(normalizedProductId, normalizedSize, qty)) {
+        // Single check-and-decrement: a separate availability read would race with other terminals
+        if (!stockRepository.tryDecreaseQuantity(normalizedProductId, normalizedSize, qty)) {
             throw new InsufficientStockException("Insufficient stock for " + productId + " (" + size + ")");
         }
-        stockRepository.decreaseQuantity(normalizedProductId, normalizedSize, qty);
         LOG.info("Reduced stock {} {} by {}", normalizedProductId, normalizedSize, qty);
     }
 
@@ -19,9 +19,15 @@ public class MemberService {
     private static final Pattern IC_PATTERN = Pattern.compile("\\d{6}-?\\d{2}-?\\d{4}");
 
     private final MemberRepository repository;
+    private final IdAllocator idAllocator;
 
     public MemberService(MemberRepository repository) {
+        this(repository, new IdAllocator());
+    }
+
+    public MemberService(MemberRepository repository, IdAllocator idAllocator) {
         this.repository = repository;
+        this.idAllocator = idAllocator;
     }
 
     public MemberRecord registerMember(String name, String icNumber, double initialCredit) {
@@ -86,6 +92,10 @@ public class MemberService {
         return repository.searchByName(keyword);
     }
 
+    public List<MemberRecord> searchByName(String keyword, int limit) {
+        return repository.searchByName(keyword, limit);
+    }
+
     public List<MemberRecord> findAll() {
         return repository.findAll();
     }
@@ -118,21 +128,9 @@ public class MemberService {
     }
 
     private String generateId() {
-        int max = 0;
-        for (MemberRecord member : repository.findAll()) {
-            String memberId = member.getMemberId();
-            if (memberId != null && memberId.startsWith("MB")) {
-                try {
-                    int num = Integer.parseInt(memberId.substring(2));
-                    if (num > max) {
-                        max = num;
-                    }
-                } catch (NumberFormatException ignore) {
-                    // skip malformed ids
-                }
-            }
-        }
-        return "MB" + String.format("%03d", max + 1);
+        return idAllocator.nextId("member", "MB", 3,
+                () -> IdAllocator.maxSuffix(repository.findAll().stream().map(MemberRecord::getMemberId).toList(), "MB"),
+                id -> repository.findById(id).isPresent());
     }
 
     private String normalizeId(String id) {
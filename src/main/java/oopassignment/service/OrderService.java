@@ -4,6 +4,7 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 import oopassignment.domain.order.OrderItemRequest;
 import oopassignment.domain.order.OrderRequest;
 import oopassignment.domain.order.OrderResult;
@@ -11,7 +12,6 @@ import oopassignment.domain.order.TransactionHeader;
 import oopassignment.domain.order.TransactionItem;
 import oopassignment.domain.product.ProductRecord;
 import oopassignment.exception.EntityNotFoundException;
-import oopassignment.exception.InsufficientStockException;
 import oopassignment.exception.InvalidInputException;
 import oopassignment.repository.ProductRepository;
 import oopassignment.repository.TransactionRepository;
@@ -28,6 +28,7 @@ public class OrderService {
     private final PricingService pricingService;
     private final TransactionRepository transactionRepository;
     private final MemberRepository memberRepository;
+    private final IdAllocator idAllocator;
     private static final Logger LOG = LoggerFactory.getLogger(OrderService.class);
 
 
@@ -36,11 +37,22 @@ public class OrderService {
                         PricingService pricingService,
                         TransactionRepository transactionRepository,
                         MemberRepository memberRepository) {
+        this(productRepository, inventoryService, pricingService, transactionRepository, memberRepository,
+                new IdAllocator());
+    }
+
+    public OrderService(ProductRepository productRepository,
+                        InventoryService inventoryService,
+                        PricingService pricingService,
+                        TransactionRepository transactionRepository,
+                        MemberRepository memberRepository,
+                        IdAllocator idAllocator) {
         this.productRepository = productRepository;
         this.inventoryService = inventoryService;
         this.pricingService = pricingService;
         this.transactionRepository = transactionRepository;
         this.memberRepository = memberRepository;
+        this.idAllocator = idAllocator;
     }
 
     // Backward compatibility constructor (deprecated)
@@ -69,9 +81,6 @@ public class OrderService {
         for (OrderItemRequest itemRequest : request.getItems()) {
             ProductRecord product = getProductOrThrow(itemRequest.getProductId());
             ValidationUtils.validateQuantity(itemRequest.getQuantity());
-            if (!inventoryService.isStockAvailable(itemRequest.getProductId(), itemRequest.getSize(), itemRequest.getQuantity())) {
-                throw new InsufficientStockException("Insufficient stock for " + product.getProductId());
-            }
             subtotal += product.getPrice() * itemRequest.getQuantity();
             transactionItems.add(new TransactionItem(
                     "",
@@ -87,6 +96,28 @@ public class OrderService {
         double discount = subtotal - total;
         String transactionId = generateTransactionId();
 
+        // Take the stock first with conditional decrements, so a checkout that loses the race for the last unit
+        // fails before the wallet is charged or the sale is saved
+        List<OrderItemRequest> reserved = new ArrayList<>();
+        try {
+            for (OrderItemRequest itemRequest : request.getItems()) {
+                inventoryService.reduceStock(itemRequest.getProductId(), itemRequest.getSize(), itemRequest.getQuantity());
+                reserved.add(itemRequest);
+            }
+            chargeAndSave(request, paymentMethod, isMember, total, transactionId, transactionItems);
+        } catch (RuntimeException e) {
+            for (OrderItemRequest itemRequest : reserved) {
+                inventoryService.increaseStock(itemRequest.getProductId(), itemRequest.getSize(), itemRequest.getQuantity());
+            }
+            throw e;
+        }
+
+        LOG.info("Order {} placed with {} items (member={}, payment={})", transactionId, transactionItems.size(), isMember, paymentMethod);
+        return new OrderResult(transactionId, subtotal, discount, total, isMember);
+    }
+
+    private void chargeAndSave(OrderRequest request, String paymentMethod, boolean isMember, double total,
+                               String transactionId, List<TransactionItem> transactionItems) {
         // Handle WALLET payment - deduct from member's credit balance
         if ("WALLET".equalsIgnoreCase(paymentMethod)) {
             if (!isMember) {
@@ -130,31 +161,16 @@ public class OrderService {
                 paymentMethod
         );
         transactionRepository.saveTransaction(header, itemsWithId);
-
-        for (OrderItemRequest itemRequest : request.getItems()) {
-            inventoryService.reduceStock(itemRequest.getProductId(), itemRequest.getSize(), itemRequest.getQuantity());
-        }
-
-        LOG.info("Order {} placed with {} items (member={}, payment={})", transactionId, transactionItems.size(), isMember, paymentMethod);
-        return new OrderResult(transactionId, subtotal, discount, total, isMember);
     }
 
     private String generateTransactionId() {
-        int max = 0;
-        for (TransactionHeader header : transactionRepository.findAllHeaders()) {
-            String id = header.getTransactionId();
-            if (id != null && id.startsWith("T")) {
-                try {
-                    int num = Integer.parseInt(id.substring(1));
-                    if (num > max) {
-                        max = num;
-                    }
-                } catch (NumberFormatException ignore) {
-                    // skip malformed ids
-                }
+        // The full header scan only runs once, to seed the sequence the first time it is used
+        long next = idAllocator.next("transaction", () -> {
+            try (Stream<TransactionHeader> headers = transactionRepository.streamHeaders()) {
+                return IdAllocator.maxSuffix(headers.map(TransactionHeader::getTransactionId)::iterator, "T");
             }
-        }
-        return "T" + String.format("%04d", max + 1);
+        });
+        return IdAllocator.format("T", 4, next);
     }
 
     private ProductRecord getProductOrThrow(String productId) {
@@ -1,10 +1,14 @@
 package oopassignment.service;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import oopassignment.config.AppConfig;
 import oopassignment.domain.product.ProductRecord;
 import oopassignment.domain.product.ProductStatus;
+import oopassignment.domain.product.ProductStock;
+import oopassignment.domain.product.StockItem;
 import oopassignment.exception.EntityNotFoundException;
 import oopassignment.exception.InsufficientStockException;
 import oopassignment.repository.ProductRepository;
@@ -18,10 +22,17 @@ public class ProductService {
     private static final Logger LOG = LoggerFactory.getLogger(ProductService.class);
     private final ProductRepository productRepository;
     private final StockRepository stockRepository;
+    private final IdAllocator idAllocator;
 
     public ProductService(ProductRepository productRepository, StockRepository stockRepository) {
+        this(productRepository, stockRepository, new IdAllocator());
+    }
+
+    public ProductService(ProductRepository productRepository, StockRepository stockRepository,
+                          IdAllocator idAllocator) {
         this.productRepository = productRepository;
         this.stockRepository = stockRepository;
+        this.idAllocator = idAllocator;
     }
 
     public ProductRecord addProduct(String name, String category, double price) {
@@ -65,22 +76,26 @@ public class ProductService {
         return productRepository.findAll();
     }
 
-    private String generateId() {
-        int max = 0;
-        for (ProductRecord product : productRepository.findAll()) {
-            String pid = product.getProductId();
-            if (pid != null && pid.startsWith("P")) {
-                try {
-                    int num = Integer.parseInt(pid.substring(1));
-                    if (num > max) {
-                        max = num;
-                    }
-                } catch (NumberFormatException ignore) {
-                    // skip malformed ids
-                }
-            }
+    /**
+     * Every product with its per-size stock, read with one product query and one stock query however many
+     * products there are.
+     */
+    public List<ProductStock> findAllWithStock() {
+        List<ProductRecord> products = productRepository.findAll();
+        Map<String, List<StockItem>> stockByProduct = stockRepository.findAllGroupedByProduct();
+        List<ProductStock> result = new ArrayList<>(products.size());
+        for (ProductRecord product : products) {
+            List<StockItem> stock = stockByProduct.get(product.getProductId().toUpperCase());
+            result.add(new ProductStock(product, stock != null ? stock : List.of()));
         }
-        return "P" + String.format("%03d", max + 1);
+        return result;
+    }
+
+    private String generateId() {
+        return idAllocator.nextId("product", "P", 3,
+                () -> IdAllocator.maxSuffix(
+                        productRepository.findAll().stream().map(ProductRecord::getProductId).toList(), "P"),
+                id -> productRepository.findById(id).isPresent());
     }
 
     private ProductRecord getProductOrThrow(String productId) {
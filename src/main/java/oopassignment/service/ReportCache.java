@@ -0,0 +1,177 @@
+package oopassignment.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import oopassignment.util.CacheStats;
+
+/**
+ * Bounded LRU of report results keyed by query name and date range. A saved transaction drops only the entries
+ * whose range covers its date, and bumps {@code version} only when it landed in a cached or loading range, so
+ * a load that raced with it is not stored. Entries also expire after {@code ttlMs}. Expiry only forces a reload:
+ * results reloaded from the database then include other terminals' writes, but results served by a
+ * {@link SalesColumnStore} only see what that store holds, which is this process's writes until it is reloaded.
+ */
+final class ReportCache {
+
+    // Rough per-object sizes for the memory estimate; headers dominate range results
+    private static final long ENTRY_BYTES = 160;
+    private static final long ROW_BYTES = 200;
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final Map<Key, Entry> entries;
+    private final List<Key> loading = new ArrayList<>();
+
+    private long version;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    ReportCache(int maxSize, long ttlMs) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() > ReportCache.this.maxSize) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Cached result of {@code query} over {@code from}..{@code to}, running {@code loader} on a miss. The loader
+     * runs outside the lock; its result must not be modified afterwards.
+     *
+     * @param rows how many rows a result holds, for the memory estimate
+     */
+    @SuppressWarnings("unchecked")
+    <T> T get(String query, LocalDate from, LocalDate to, Supplier<T> loader, ToIntFunction<T> rows) {
+        Key key = new Key(query, from, to);
+        long loadVersion;
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                if (System.nanoTime() - entry.loadedAt < ttlNanos) {
+                    hits++;
+                    return (T) entry.value;
+                }
+                entries.remove(key);
+                evictions++;
+            }
+            misses++;
+            loadVersion = version;
+            loading.add(key);
+        }
+        T value;
+        try {
+            value = loader.get();
+        } finally {
+            synchronized (this) {
+                loading.remove(key);
+            }
+        }
+        synchronized (this) {
+            if (version == loadVersion) {
+                entries.put(key, new Entry(value, rows.applyAsInt(value), System.nanoTime()));
+            }
+        }
+        return value;
+    }
+
+    synchronized void transactionSaved(LocalDate date) {
+        boolean affected = false;
+        for (Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator(); it.hasNext(); ) {
+            if (it.next().getKey().covers(date)) {
+                it.remove();
+                invalidations++;
+                affected = true;
+            }
+        }
+        for (Key key : loading) {
+            affected |= key.covers(date);
+        }
+        if (affected) {
+            version++;
+        }
+    }
+
+    synchronized void invalidateAll() {
+        version++;
+        invalidations += entries.size();
+        entries.clear();
+    }
+
+    synchronized long getVersion() {
+        return version;
+    }
+
+    synchronized CacheStats getStats() {
+        long bytes = 0;
+        for (Entry entry : entries.values()) {
+            bytes += ENTRY_BYTES + entry.rows * ROW_BYTES;
+        }
+        return new CacheStats(hits, misses, evictions, invalidations, entries.size(), maxSize, bytes);
+    }
+
+    private static final class Key {
+        private final String query;
+        private final LocalDate from;
+        private final LocalDate to;
+
+        private Key(String query, LocalDate from, LocalDate to) {
+            this.query = query;
+            this.from = from;
+            this.to = to;
+        }
+
+        /** Open (null) bounds cover everything on that side, as in the repository range queries. */
+        private boolean covers(LocalDate date) {
+            return (from == null || !date.isBefore(from)) && (to == null || !date.isAfter(to));
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return query.equals(other.query) && Objects.equals(from, other.from) && Objects.equals(to, other.to);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(query, from, to);
+        }
+    }
+
+    private static final class Entry {
+        private final Object value;
+        private final int rows;
+        private final long loadedAt;
+
+        private Entry(Object value, int rows, long loadedAt) {
+            this.value = value;
+            this.rows = rows;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -2,31 +2,92 @@ package oopassignment.service;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import oopassignment.domain.order.TransactionHeader;
+import oopassignment.domain.order.TransactionHeaderPage;
+import oopassignment.domain.order.TransactionItem;
 import oopassignment.domain.report.MemberPurchase;
+import oopassignment.domain.report.MemberPurchasePage;
+import oopassignment.domain.report.SalesReport;
 import oopassignment.domain.report.SalesSummary;
+import oopassignment.repository.TransactionListener;
 import oopassignment.repository.TransactionRepository;
+import oopassignment.util.CacheStats;
 
-public class ReportService {
+/**
+ * Report queries over the transaction history. With a cache size above zero, date-range results are kept in a
+ * {@link ReportCache}; given a loaded {@link SalesColumnStore}, group-bys and range listings scan its columns
+ * instead of the repository, and {@link #refreshColumns} reloads it. Totals always come from the repository's
+ * daily rollup and member history from its member index, since both are cheaper than any scan. Either way,
+ * register the service as a {@link TransactionListener} on the repository that checkout writes through so new
+ * sales reach the store and drop the cached ranges they fall in.
+ */
+public class ReportService implements TransactionListener {
+
+    private static final int HISTORY_PAGE_SIZE = 200;
 
     private final TransactionRepository transactionRepository;
+    private final ReportCache cache;
+    private final SalesColumnStore columns;
 
     public ReportService(TransactionRepository transactionRepository) {
+        this(transactionRepository, 0, 0);
+    }
+
+    public ReportService(TransactionRepository transactionRepository, int cacheSize, long cacheTtlMs) {
+        this(transactionRepository, cacheSize, cacheTtlMs, null);
+    }
+
+    /**
+     * @param columns column store for {@code transactionRepository}, or null to aggregate through the repository.
+     *                Reports read the repository until the store {@link SalesColumnStore#isLoaded() is loaded}.
+     */
+    public ReportService(TransactionRepository transactionRepository, int cacheSize, long cacheTtlMs,
+                         SalesColumnStore columns) {
         this.transactionRepository = transactionRepository;
+        this.cache = cacheSize > 0 ? new ReportCache(cacheSize, cacheTtlMs) : null;
+        this.columns = columns;
     }
 
     public SalesSummary getTotalSales(LocalDate from, LocalDate to) {
-        double total = 0;
-        int count = 0;
-        for (TransactionHeader header : transactionRepository.findAllHeaders()) {
-            LocalDate date = header.getDateTime().toLocalDate();
-            if ((from == null || !date.isBefore(from)) && (to == null || !date.isAfter(to))) {
-                total += header.getTotalAmount();
-                count++;
-            }
-        }
-        return new SalesSummary(total, count);
+        return cached("totalSales", from, to, () -> transactionRepository.summarizeSales(from, to), summary -> 0);
+    }
+
+    /**
+     * Total and count per payment method in {@code [from, to]}, ordered by method. The map is read-only; cached
+     * results are shared between callers.
+     */
+    public Map<String, SalesSummary> getSalesByPaymentMethod(LocalDate from, LocalDate to) {
+        return cached("salesByPaymentMethod", from, to, () -> Collections.unmodifiableMap(columnsLoaded()
+                ? columns.summarizeByPaymentMethod(from, to)
+                : summarizeHeadersBy(from, to, TransactionHeader::getPaymentMethod)), Map::size);
+    }
+
+    /**
+     * Total and count per customer type in {@code [from, to]}, ordered by type. The map is read-only.
+     */
+    public Map<String, SalesSummary> getSalesByCustomerType(LocalDate from, LocalDate to) {
+        return cached("salesByCustomerType", from, to, () -> Collections.unmodifiableMap(columnsLoaded()
+                ? columns.summarizeByCustomerType(from, to)
+                : summarizeHeadersBy(from, to, TransactionHeader::getCustomerType)), Map::size);
+    }
+
+    /**
+     * Units sold in {@code [from, to]} by product id and then size, both ordered. The maps are read-only.
+     */
+    public Map<String, Map<String, Integer>> getUnitsSold(LocalDate from, LocalDate to) {
+        return cached("unitsSold", from, to, () -> readOnly(columnsLoaded()
+                ? columns.unitsSold(from, to)
+                : loadUnitsSold(from, to)), Map::size);
     }
 
     public SalesSummary getSalesSummary(LocalDate from, LocalDate to) {
@@ -35,26 +96,177 @@ public class ReportService {
 
     public List<MemberPurchase> getMemberPurchaseHistory(String memberId) {
         List<MemberPurchase> purchases = new ArrayList<>();
-        for (TransactionHeader header : transactionRepository.findAllHeaders()) {
-            if (memberId != null && memberId.equals(header.getMemberId())) {
-                purchases.add(new MemberPurchase(
-                        header.getTransactionId(),
-                        header.getDateTime(),
-                        header.getTotalAmount(),
-                        header.getPaymentMethod()));
-            }
+        if (memberId == null) {
+            return purchases;
         }
+        String cursor = null;
+        do {
+            MemberPurchasePage page = getMemberPurchasePage(memberId, HISTORY_PAGE_SIZE, cursor);
+            purchases.addAll(page.getPurchases());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        // Pages come newest first; the full history has always been listed oldest first
+        Collections.reverse(purchases);
         return purchases;
     }
 
+    /**
+     * One newest-first page of a member's purchases, read through the member index rather than a full scan.
+     */
+    public MemberPurchasePage getMemberPurchasePage(String memberId, int limit, String cursor) {
+        TransactionHeaderPage page = transactionRepository.findHeadersByMember(memberId, limit, cursor);
+        List<MemberPurchase> purchases = new ArrayList<>(page.getHeaders().size());
+        for (TransactionHeader header : page.getHeaders()) {
+            purchases.add(new MemberPurchase(
+                    header.getTransactionId(),
+                    header.getDateTime(),
+                    header.getTotalAmount(),
+                    header.getPaymentMethod()));
+        }
+        return new MemberPurchasePage(purchases, page.getNextCursor());
+    }
+
+    /**
+     * Lines for every purchase in a history, fetched together instead of one query per purchase.
+     */
+    public Map<String, List<TransactionItem>> getItemsForPurchases(List<MemberPurchase> purchases) {
+        List<String> ids = new ArrayList<>(purchases.size());
+        for (MemberPurchase purchase : purchases) {
+            ids.add(purchase.getTransactionId());
+        }
+        return transactionRepository.findItemsByTransactions(ids);
+    }
+
     public List<TransactionHeader> getTransactionsInRange(LocalDate from, LocalDate to) {
+        return cached("transactionsInRange", from, to, () -> {
+            if (columnsLoaded()) {
+                return Collections.unmodifiableList(columns.headersBetween(from, to));
+            }
+            try (Stream<TransactionHeader> headers = transactionRepository.streamHeadersBetween(from, to)) {
+                return Collections.unmodifiableList(headers.collect(Collectors.toList()));
+            }
+        }, List::size);
+    }
+
+    /**
+     * Rows and summary for a date range from a single read, for screens that show both.
+     */
+    public SalesReport getSalesReport(LocalDate from, LocalDate to) {
+        return cached("salesReport", from, to, () -> loadSalesReport(from, to),
+                report -> report.getTransactions().size());
+    }
+
+    private SalesReport loadSalesReport(LocalDate from, LocalDate to) {
+        if (columnsLoaded()) {
+            List<TransactionHeader> transactions = columns.headersBetween(from, to);
+            double total = 0;
+            for (TransactionHeader header : transactions) {
+                total += header.getTotalAmount();
+            }
+            return new SalesReport(Collections.unmodifiableList(transactions), new SalesSummary(total, transactions.size()));
+        }
         List<TransactionHeader> transactions = new ArrayList<>();
-        for (TransactionHeader header : transactionRepository.findAllHeaders()) {
-            LocalDate date = header.getDateTime().toLocalDate();
-            if ((from == null || !date.isBefore(from)) && (to == null || !date.isAfter(to))) {
+        double total = 0;
+        try (Stream<TransactionHeader> headers = transactionRepository.streamHeadersBetween(from, to)) {
+            for (TransactionHeader header : (Iterable<TransactionHeader>) headers::iterator) {
                 transactions.add(header);
+                total += header.getTotalAmount();
             }
         }
-        return transactions;
+        return new SalesReport(Collections.unmodifiableList(transactions), new SalesSummary(total, transactions.size()));
+    }
+
+    private Map<String, SalesSummary> summarizeHeadersBy(LocalDate from, LocalDate to,
+                                                         Function<TransactionHeader, String> key) {
+        Map<String, double[]> totals = new TreeMap<>(Comparator.nullsFirst(Comparator.naturalOrder()));
+        try (Stream<TransactionHeader> headers = transactionRepository.streamHeadersBetween(from, to)) {
+            for (TransactionHeader header : (Iterable<TransactionHeader>) headers::iterator) {
+                double[] total = totals.computeIfAbsent(key.apply(header), k -> new double[2]);
+                total[0] += header.getTotalAmount();
+                total[1]++;
+            }
+        }
+        Map<String, SalesSummary> result = new TreeMap<>(Comparator.nullsFirst(Comparator.naturalOrder()));
+        totals.forEach((k, total) -> result.put(k, new SalesSummary(total[0], (int) total[1])));
+        return result;
+    }
+
+    private Map<String, Map<String, Integer>> loadUnitsSold(LocalDate from, LocalDate to) {
+        List<String> ids;
+        try (Stream<TransactionHeader> headers = transactionRepository.streamHeadersBetween(from, to)) {
+            ids = headers.map(TransactionHeader::getTransactionId).collect(Collectors.toList());
+        }
+        Map<String, Map<String, Integer>> result = new TreeMap<>();
+        for (List<TransactionItem> lines : transactionRepository.findItemsByTransactions(ids).values()) {
+            for (TransactionItem line : lines) {
+                result.computeIfAbsent(line.getProductId().trim().toUpperCase(), p -> new TreeMap<>())
+                        .merge(line.getSize().trim().toUpperCase(), line.getQuantity(), Integer::sum);
+            }
+        }
+        return result;
+    }
+
+    private static Map<String, Map<String, Integer>> readOnly(Map<String, Map<String, Integer>> unitsSold) {
+        unitsSold.replaceAll((product, sizes) -> Collections.unmodifiableMap(sizes));
+        return Collections.unmodifiableMap(unitsSold);
+    }
+
+    @Override
+    public void transactionSaved(TransactionHeader header, List<TransactionItem> items) {
+        // Columns first, so a cached load racing this save is already marked stale when it reads them
+        if (columns != null) {
+            columns.append(header, items);
+        }
+        if (cache != null) {
+            cache.transactionSaved(header.getDateTime().toLocalDate());
+        }
+    }
+
+    @Override
+    public void transactionAmended(TransactionHeader header, List<TransactionItem> items) {
+        if (columns != null) {
+            columns.amend(header, items);
+        }
+        // The old date is unknown here, so every cached range may be stale
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+
+    /**
+     * Rebuilds the column store from the repository so it includes sales saved by other terminals, then drops
+     * every cached result. Does nothing without a column store.
+     */
+    public void refreshColumns() {
+        if (columns == null) {
+            return;
+        }
+        columns.reload(transactionRepository);
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+
+    private boolean columnsLoaded() {
+        return columns != null && columns.isLoaded();
+    }
+
+    /**
+     * Report cache counters, including an estimate of the memory held; all zero when caching is off.
+     */
+    public CacheStats getCacheStats() {
+        return cache != null ? cache.getStats() : new CacheStats(0, 0, 0, 0, 0, 0);
+    }
+
+    /** Bumped whenever a write lands inside a cached or loading range; 0 when caching is off. */
+    public long getCacheVersion() {
+        return cache != null ? cache.getVersion() : 0;
+    }
+
+    private <T> T cached(String query, LocalDate from, LocalDate to, Supplier<T> loader, ToIntFunction<T> rows) {
+        if (cache == null) {
+            return loader.get();
+        }
+        return cache.get(query, from, to, loader, rows);
     }
 }
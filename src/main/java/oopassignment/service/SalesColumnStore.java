@@ -0,0 +1,647 @@
+package oopassignment.service;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BinaryOperator;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import oopassignment.config.AppConfig;
+import oopassignment.domain.order.TransactionHeader;
+import oopassignment.domain.order.TransactionItem;
+import oopassignment.domain.report.SalesSummary;
+import oopassignment.repository.TransactionRepository;
+
+/**
+ * Transaction headers and lines held as parallel primitive arrays for report scans: the sale day as an epoch-day
+ * int, amounts as stored doubles, and repeated strings (payment method, customer type, member, product, size) as
+ * dictionary codes. A range aggregate is then a loop over a few primitive arrays instead of a walk over header
+ * objects.
+ *
+ * <p>Rows are only appended. An amendment marks the transaction's old row dead and appends the new version, so
+ * queries skip dead rows. The store only sees writes made through this process; {@link #reload} rebuilds it from
+ * the repository to pick up sales made elsewhere.
+ *
+ * <p>Scans over more than {@code parallelThreshold} rows are split into partitions of at most
+ * {@code partitionSize} rows and run on the common fork/join pool; partial results are merged left to right, so
+ * the answer does not depend on how the work was scheduled. Smaller scans run in a single loop on the calling
+ * thread.
+ */
+public class SalesColumnStore {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int LOAD_CHUNK = 500;
+    private static final int NO_VALUE = -1;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final int parallelThreshold;
+    private final int partitionSize;
+
+    // Writes seen while a reload reads the repository, replayed onto the reloaded columns; null when idle
+    private List<PendingWrite> pendingWrites;
+    private boolean loaded;
+
+    private Dictionary paymentMethods = new Dictionary();
+    private Dictionary customerTypes = new Dictionary();
+    private Dictionary members = new Dictionary();
+    private Dictionary products = new Dictionary();
+    private Dictionary sizes = new Dictionary();
+
+    // Header columns, one slot per transaction row
+    private String[] transactionIds = new String[INITIAL_CAPACITY];
+    private int[] epochDays = new int[INITIAL_CAPACITY];
+    private long[] nanosOfDay = new long[INITIAL_CAPACITY];
+    private double[] amounts = new double[INITIAL_CAPACITY];
+    private int[] paymentCodes = new int[INITIAL_CAPACITY];
+    private int[] customerTypeCodes = new int[INITIAL_CAPACITY];
+    private int[] memberCodes = new int[INITIAL_CAPACITY];
+    private boolean[] live = new boolean[INITIAL_CAPACITY];
+    private int rows;
+    private int liveRows;
+
+    // Line columns; itemRows points back at the owning header row
+    private int[] itemRows = new int[INITIAL_CAPACITY];
+    private int[] productCodes = new int[INITIAL_CAPACITY];
+    private int[] sizeCodes = new int[INITIAL_CAPACITY];
+    private int[] quantities = new int[INITIAL_CAPACITY];
+    private int items;
+
+    public SalesColumnStore() {
+        this(AppConfig.REPORT_PARALLEL_THRESHOLD, AppConfig.REPORT_PARTITION_SIZE);
+    }
+
+    /**
+     * @param parallelThreshold scans over more rows than this run on the fork/join pool
+     * @param partitionSize     most rows one fork/join task scans
+     */
+    public SalesColumnStore(int parallelThreshold, int partitionSize) {
+        if (parallelThreshold <= 0) {
+            throw new IllegalArgumentException("Parallel threshold must be positive");
+        }
+        if (partitionSize <= 0) {
+            throw new IllegalArgumentException("Partition size must be positive");
+        }
+        this.parallelThreshold = parallelThreshold;
+        this.partitionSize = partitionSize;
+    }
+
+    /**
+     * Store filled with every transaction currently in {@code repository}. Build it before checkout can write, as
+     * the application context does at startup; saves made while it loads would otherwise be missed or doubled.
+     */
+    public static SalesColumnStore load(TransactionRepository repository) {
+        return load(repository, AppConfig.REPORT_PARALLEL_THRESHOLD, AppConfig.REPORT_PARTITION_SIZE);
+    }
+
+    public static SalesColumnStore load(TransactionRepository repository, int parallelThreshold, int partitionSize) {
+        SalesColumnStore store = new SalesColumnStore(parallelThreshold, partitionSize);
+        List<TransactionHeader> chunk = new ArrayList<>(LOAD_CHUNK);
+        try (Stream<TransactionHeader> headers = repository.streamHeaders()) {
+            for (TransactionHeader header : (Iterable<TransactionHeader>) headers::iterator) {
+                chunk.add(header);
+                if (chunk.size() == LOAD_CHUNK) {
+                    store.appendChunk(repository, chunk);
+                    chunk.clear();
+                }
+            }
+        }
+        store.appendChunk(repository, chunk);
+        store.loaded = true;
+        return store;
+    }
+
+    /**
+     * Rebuilds the columns from {@code repository}, e.g. to pick up sales saved by other terminals. The read runs
+     * without blocking queries or appends: queries keep answering from the current columns, and saves and amends
+     * that arrive meanwhile are replayed onto the new columns before they replace the old ones, so none is missed
+     * or counted twice.
+     */
+    public void reload(TransactionRepository repository) {
+        lock.writeLock().lock();
+        try {
+            if (pendingWrites != null) {
+                throw new IllegalStateException("Column store reload already running");
+            }
+            pendingWrites = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        SalesColumnStore fresh = null;
+        try {
+            fresh = load(repository, parallelThreshold, partitionSize);
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (fresh != null) {
+                    adopt(fresh);
+                    for (PendingWrite write : pendingWrites) {
+                        // Amend semantics: a write the reload already read replaces its row instead of doubling it
+                        replaceRow(write.header, write.lines);
+                    }
+                    loaded = true;
+                }
+                pendingWrites = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * True once the store has been filled from a repository by {@link #load} or {@link #reload}; a store built
+     * with a constructor holds only what was appended to it.
+     */
+    public boolean isLoaded() {
+        lock.readLock().lock();
+        try {
+            return loaded;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Caller holds the write lock; fresh is no longer shared
+    private void adopt(SalesColumnStore fresh) {
+        paymentMethods = fresh.paymentMethods;
+        customerTypes = fresh.customerTypes;
+        members = fresh.members;
+        products = fresh.products;
+        sizes = fresh.sizes;
+        transactionIds = fresh.transactionIds;
+        epochDays = fresh.epochDays;
+        nanosOfDay = fresh.nanosOfDay;
+        amounts = fresh.amounts;
+        paymentCodes = fresh.paymentCodes;
+        customerTypeCodes = fresh.customerTypeCodes;
+        memberCodes = fresh.memberCodes;
+        live = fresh.live;
+        rows = fresh.rows;
+        liveRows = fresh.liveRows;
+        itemRows = fresh.itemRows;
+        productCodes = fresh.productCodes;
+        sizeCodes = fresh.sizeCodes;
+        quantities = fresh.quantities;
+        items = fresh.items;
+    }
+
+    private void appendChunk(TransactionRepository repository, List<TransactionHeader> chunk) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<String> ids = new ArrayList<>(chunk.size());
+        for (TransactionHeader header : chunk) {
+            ids.add(header.getTransactionId());
+        }
+        Map<String, List<TransactionItem>> itemsById = repository.findItemsByTransactions(ids);
+        for (TransactionHeader header : chunk) {
+            append(header, itemsById.getOrDefault(header.getTransactionId(), List.of()));
+        }
+    }
+
+    public void append(TransactionHeader header, List<TransactionItem> lines) {
+        lock.writeLock().lock();
+        try {
+            appendRow(header, lines);
+            if (pendingWrites != null) {
+                pendingWrites.add(new PendingWrite(header, lines));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the stored version of {@code header}'s transaction, or adds it if it was never seen.
+     */
+    public void amend(TransactionHeader header, List<TransactionItem> lines) {
+        lock.writeLock().lock();
+        try {
+            replaceRow(header, lines);
+            if (pendingWrites != null) {
+                pendingWrites.add(new PendingWrite(header, lines));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Caller holds the write lock
+    private void replaceRow(TransactionHeader header, List<TransactionItem> lines) {
+        // Amendments are rare; a scan of the id column keeps the store free of a per-row id map
+        String id = header.getTransactionId();
+        for (int row = 0; row < rows; row++) {
+            if (live[row] && transactionIds[row].equals(id)) {
+                live[row] = false;
+                liveRows--;
+            }
+        }
+        appendRow(header, lines);
+    }
+
+    public int getRowCount() {
+        lock.readLock().lock();
+        try {
+            return liveRows;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Total and count of transactions dated within {@code [from, to]} (inclusive days; a null bound is open).
+     */
+    public SalesSummary summarize(LocalDate from, LocalDate to) {
+        int lo = lowerDay(from);
+        int hi = upperDay(to);
+        lock.readLock().lock();
+        try {
+            int[] days = epochDays;
+            double[] amountColumn = amounts;
+            boolean[] alive = live;
+            double[] total = scan(rows, () -> new double[2], (partial, start, end) -> {
+                for (int row = start; row < end; row++) {
+                    int day = days[row];
+                    if (alive[row] && day >= lo && day <= hi) {
+                        partial[0] += amountColumn[row];
+                        partial[1]++;
+                    }
+                }
+            }, SalesColumnStore::addInto);
+            return new SalesSummary(total[0], (int) total[1]);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Transactions dated within {@code [from, to]}, ordered by time and then id.
+     */
+    public List<TransactionHeader> headersBetween(LocalDate from, LocalDate to) {
+        int lo = lowerDay(from);
+        int hi = upperDay(to);
+        lock.readLock().lock();
+        try {
+            int[] days = epochDays;
+            boolean[] alive = live;
+            return toHeaders(scan(rows, RowList::new, (partial, start, end) -> {
+                for (int row = start; row < end; row++) {
+                    int day = days[row];
+                    if (alive[row] && day >= lo && day <= hi) {
+                        partial.add(row);
+                    }
+                }
+            }, RowList::addAll));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * A member's transactions, oldest first.
+     */
+    public List<TransactionHeader> headersForMember(String memberId) {
+        lock.readLock().lock();
+        try {
+            int code = members.codeOf(memberId);
+            if (code == NO_VALUE) {
+                return new ArrayList<>();
+            }
+            int[] codes = memberCodes;
+            boolean[] alive = live;
+            return toHeaders(scan(rows, RowList::new, (partial, start, end) -> {
+                for (int row = start; row < end; row++) {
+                    if (alive[row] && codes[row] == code) {
+                        partial.add(row);
+                    }
+                }
+            }, RowList::addAll));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Map<String, SalesSummary> summarizeByPaymentMethod(LocalDate from, LocalDate to) {
+        lock.readLock().lock();
+        try {
+            return summarizeBy(paymentMethods, paymentCodes, from, to);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Map<String, SalesSummary> summarizeByCustomerType(LocalDate from, LocalDate to) {
+        lock.readLock().lock();
+        try {
+            return summarizeBy(customerTypes, customerTypeCodes, from, to);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Units sold per product and size in {@code [from, to]}, both ordered by id.
+     */
+    public Map<String, Map<String, Integer>> unitsSold(LocalDate from, LocalDate to) {
+        int lo = lowerDay(from);
+        int hi = upperDay(to);
+        lock.readLock().lock();
+        try {
+            int productCount = products.size();
+            int sizeCount = sizes.size();
+            int[] owners = itemRows;
+            int[] productColumn = productCodes;
+            int[] sizeColumn = sizeCodes;
+            int[] quantityColumn = quantities;
+            int[] days = epochDays;
+            boolean[] alive = live;
+            // One row of size counters per product, allocated only for products the partition actually sold
+            long[][] units = scan(items, () -> new long[productCount][], (partial, start, end) -> {
+                for (int i = start; i < end; i++) {
+                    int row = owners[i];
+                    int day = days[row];
+                    if (alive[row] && day >= lo && day <= hi) {
+                        long[] bySize = partial[productColumn[i]];
+                        if (bySize == null) {
+                            bySize = new long[sizeCount];
+                            partial[productColumn[i]] = bySize;
+                        }
+                        bySize[sizeColumn[i]] += quantityColumn[i];
+                    }
+                }
+            }, SalesColumnStore::addRowsInto);
+            Map<String, Map<String, Integer>> result = new TreeMap<>();
+            for (int product = 0; product < productCount; product++) {
+                long[] bySize = units[product];
+                if (bySize == null) {
+                    continue;
+                }
+                for (int size = 0; size < sizeCount; size++) {
+                    if (bySize[size] != 0) {
+                        result.computeIfAbsent(products.decode(product), p -> new TreeMap<>())
+                                .put(sizes.decode(size), (int) bySize[size]);
+                    }
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Caller holds the read lock
+    private Map<String, SalesSummary> summarizeBy(Dictionary dictionary, int[] codes, LocalDate from, LocalDate to) {
+        int lo = lowerDay(from);
+        int hi = upperDay(to);
+        int[] days = epochDays;
+        double[] amountColumn = amounts;
+        boolean[] alive = live;
+        // Slot 0 collects rows without a value (code -1); the second half of the array holds counts
+        int slots = dictionary.size() + 1;
+        double[] totals = scan(rows, () -> new double[slots * 2], (partial, start, end) -> {
+            for (int row = start; row < end; row++) {
+                int day = days[row];
+                if (alive[row] && day >= lo && day <= hi) {
+                    int slot = codes[row] + 1;
+                    partial[slot] += amountColumn[row];
+                    partial[slots + slot]++;
+                }
+            }
+        }, SalesColumnStore::addInto);
+        Map<String, SalesSummary> result = new TreeMap<>(Comparator.nullsFirst(Comparator.naturalOrder()));
+        for (int slot = 0; slot < slots; slot++) {
+            if (totals[slots + slot] > 0) {
+                result.put(dictionary.decode(slot - 1), new SalesSummary(totals[slot], (int) totals[slots + slot]));
+            }
+        }
+        return result;
+    }
+
+    // Caller holds the read lock
+    private List<TransactionHeader> toHeaders(RowList matches) {
+        Integer[] order = new Integer[matches.size];
+        for (int i = 0; i < matches.size; i++) {
+            order[i] = matches.rows[i];
+        }
+        Arrays.sort(order, Comparator.<Integer>comparingInt(row -> epochDays[row])
+                .thenComparingLong(row -> nanosOfDay[row])
+                .thenComparing(row -> transactionIds[row]));
+        List<TransactionHeader> headers = new ArrayList<>(order.length);
+        for (int row : order) {
+            headers.add(new TransactionHeader(
+                    transactionIds[row],
+                    LocalDate.ofEpochDay(epochDays[row]).atTime(LocalTime.ofNanoOfDay(nanosOfDay[row])),
+                    members.decode(memberCodes[row]),
+                    customerTypes.decode(customerTypeCodes[row]),
+                    amounts[row],
+                    paymentMethods.decode(paymentCodes[row])));
+        }
+        return headers;
+    }
+
+    /**
+     * Runs {@code leaf} over {@code [0, count)}, in one call when the range is within the threshold and otherwise
+     * as fork/join partitions whose partials are merged in index order.
+     */
+    private <P> P scan(int count, Supplier<P> newPartial, Leaf<P> leaf, BinaryOperator<P> merge) {
+        if (count <= parallelThreshold) {
+            P partial = newPartial.get();
+            leaf.accumulate(partial, 0, count);
+            return partial;
+        }
+        return ForkJoinPool.commonPool().invoke(new ScanTask<>(0, count, partitionSize, newPartial, leaf, merge));
+    }
+
+    private static long[][] addRowsInto(long[][] left, long[][] right) {
+        for (int i = 0; i < left.length; i++) {
+            if (right[i] == null) {
+                continue;
+            }
+            if (left[i] == null) {
+                left[i] = right[i];
+            } else {
+                for (int j = 0; j < left[i].length; j++) {
+                    left[i][j] += right[i][j];
+                }
+            }
+        }
+        return left;
+    }
+
+    private static double[] addInto(double[] left, double[] right) {
+        for (int i = 0; i < left.length; i++) {
+            left[i] += right[i];
+        }
+        return left;
+    }
+
+    private void appendRow(TransactionHeader header, List<TransactionItem> lines) {
+        if (rows == epochDays.length) {
+            int capacity = rows * 2;
+            transactionIds = Arrays.copyOf(transactionIds, capacity);
+            epochDays = Arrays.copyOf(epochDays, capacity);
+            nanosOfDay = Arrays.copyOf(nanosOfDay, capacity);
+            amounts = Arrays.copyOf(amounts, capacity);
+            paymentCodes = Arrays.copyOf(paymentCodes, capacity);
+            customerTypeCodes = Arrays.copyOf(customerTypeCodes, capacity);
+            memberCodes = Arrays.copyOf(memberCodes, capacity);
+            live = Arrays.copyOf(live, capacity);
+        }
+        int row = rows;
+        transactionIds[row] = header.getTransactionId();
+        epochDays[row] = (int) header.getDateTime().toLocalDate().toEpochDay();
+        nanosOfDay[row] = header.getDateTime().toLocalTime().toNanoOfDay();
+        amounts[row] = header.getTotalAmount();
+        paymentCodes[row] = paymentMethods.encode(header.getPaymentMethod());
+        customerTypeCodes[row] = customerTypes.encode(header.getCustomerType());
+        memberCodes[row] = members.encode(header.getMemberId());
+        live[row] = true;
+        rows++;
+        liveRows++;
+
+        for (TransactionItem line : lines) {
+            if (items == itemRows.length) {
+                int capacity = items * 2;
+                itemRows = Arrays.copyOf(itemRows, capacity);
+                productCodes = Arrays.copyOf(productCodes, capacity);
+                sizeCodes = Arrays.copyOf(sizeCodes, capacity);
+                quantities = Arrays.copyOf(quantities, capacity);
+            }
+            itemRows[items] = row;
+            productCodes[items] = products.encode(normalizeId(line.getProductId()));
+            sizeCodes[items] = sizes.encode(normalizeId(line.getSize()));
+            quantities[items] = line.getQuantity();
+            items++;
+        }
+    }
+
+    // Product ids and sizes are matched case-insensitively everywhere else, so fold them to one code
+    private static String normalizeId(String value) {
+        return value == null ? "" : value.trim().toUpperCase();
+    }
+
+    private static int lowerDay(LocalDate from) {
+        return from == null ? Integer.MIN_VALUE : (int) from.toEpochDay();
+    }
+
+    private static int upperDay(LocalDate to) {
+        return to == null ? Integer.MAX_VALUE : (int) to.toEpochDay();
+    }
+
+    @FunctionalInterface
+    private interface Leaf<P> {
+        void accumulate(P partial, int start, int end);
+    }
+
+    // Serializable only because ForkJoinTask is; tasks never leave the pool, so the lambdas are transient
+    private static final class ScanTask<P> extends RecursiveTask<P> {
+        private static final long serialVersionUID = 1L;
+
+        private final int start;
+        private final int end;
+        private final int partitionSize;
+        private final transient Supplier<P> newPartial;
+        private final transient Leaf<P> leaf;
+        private final transient BinaryOperator<P> merge;
+
+        private ScanTask(int start, int end, int partitionSize, Supplier<P> newPartial, Leaf<P> leaf,
+                         BinaryOperator<P> merge) {
+            this.start = start;
+            this.end = end;
+            this.partitionSize = partitionSize;
+            this.newPartial = newPartial;
+            this.leaf = leaf;
+            this.merge = merge;
+        }
+
+        @Override
+        protected P compute() {
+            if (end - start <= partitionSize) {
+                P partial = newPartial.get();
+                leaf.accumulate(partial, start, end);
+                return partial;
+            }
+            int mid = (start + end) >>> 1;
+            ScanTask<P> left = new ScanTask<>(start, mid, partitionSize, newPartial, leaf, merge);
+            ScanTask<P> right = new ScanTask<>(mid, end, partitionSize, newPartial, leaf, merge);
+            left.fork();
+            P rightResult = right.compute();
+            return merge.apply(left.join(), rightResult);
+        }
+    }
+
+    private static final class PendingWrite {
+        private final TransactionHeader header;
+        private final List<TransactionItem> lines;
+
+        private PendingWrite(TransactionHeader header, List<TransactionItem> lines) {
+            this.header = header;
+            this.lines = lines;
+        }
+    }
+
+    /** Growable list of row indexes, filled by one partition. */
+    private static final class RowList {
+        private int[] rows = new int[16];
+        private int size;
+
+        void add(int row) {
+            if (size == rows.length) {
+                rows = Arrays.copyOf(rows, size * 2);
+            }
+            rows[size++] = row;
+        }
+
+        RowList addAll(RowList other) {
+            if (size + other.size > rows.length) {
+                rows = Arrays.copyOf(rows, Math.max(rows.length * 2, size + other.size));
+            }
+            System.arraycopy(other.rows, 0, rows, size, other.size);
+            size += other.size;
+            return this;
+        }
+    }
+
+    /**
+     * Dense codes for repeated strings, assigned in first-seen order. Null is stored as {@link #NO_VALUE}.
+     */
+    private static final class Dictionary {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int encode(String value) {
+            if (value == null) {
+                return NO_VALUE;
+            }
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = values.size();
+                codes.put(value, code);
+                values.add(value);
+            }
+            return code;
+        }
+
+        int codeOf(String value) {
+            Integer code = value == null ? null : codes.get(value);
+            return code == null ? NO_VALUE : code;
+        }
+
+        String decode(int code) {
+            return code == NO_VALUE ? null : values.get(code);
+        }
+
+        int size() {
+            return values.size();
+        }
+    }
+}
@@ -14,6 +14,7 @@ import java.util.*;
 import java.awt.AWTException;
 import java.awt.Robot;
 import java.awt.event.KeyEvent;
+import oopassignment.config.Database;
 
 public class BootsDo {
 
@@ -26,10 +27,29 @@ public class BootsDo {
     public static final String RESET = "\u001B[0m";
 
     public static void main(String[] args) throws IOException {
+        if (Arrays.asList(args).contains("--rebuild-daily-sales")) {
+            rebuildDailySales();
+            return;
+        }
+        // Kick off schema bootstrap in the background; the first login waits for it if still running
+        Database.bootstrapAsync();
         BootsDotDo_Logo();
         startApplication();
     }
     
+    private static void rebuildDailySales() {
+        if (!Database.isAvailable()) {
+            System.out.println(ANSI_RED + "Database unavailable; nothing to rebuild." + RESET);
+            return;
+        }
+        try {
+            int rows = Database.rebuildDailySales();
+            System.out.println(ANSI_GREEN + "Rebuilt daily sales rollup: " + rows + " rows." + RESET);
+        } catch (java.sql.SQLException e) {
+            System.out.println(ANSI_RED + "Rebuild failed: " + e.getMessage() + RESET);
+        }
+    }
+
     public static void startApplication() throws IOException {
         while (true) {
             System.out.println("\n" + ANSI_CYAN + "=== BOOTS.DO SYSTEM ===" + RESET);
@@ -7,6 +7,7 @@ import oopassignment.domain.order.OrderItemRequest;
 import oopassignment.domain.order.OrderRequest;
 import oopassignment.domain.order.OrderResult;
 import oopassignment.domain.product.ProductRecord;
+import oopassignment.domain.product.ProductStock;
 import oopassignment.domain.product.StockItem;
 import oopassignment.domain.member.MemberRecord;
 import oopassignment.service.InventoryService;
@@ -31,7 +32,7 @@ public class OrderConsole {
     }
 
     public static void startOrderFlow() {
-        List<ProductRecord> products = productService.findAll();
+        List<ProductStock> products = productService.findAllWithStock();
         if (products.isEmpty()) {
             System.out.println("No products available to order.");
             return;
@@ -49,8 +50,9 @@ public class OrderConsole {
         System.out.printf(headerFm, "ID", "Name", "Price", "Category", "Size", "Stock");
         System.out.println(border);
         
-        for (ProductRecord p : products) {
-            List<StockItem> stockItems = inventoryService.getStockForProduct(p.getProductId());
+        for (ProductStock listing : products) {
+            ProductRecord p = listing.getProduct();
+            List<StockItem> stockItems = listing.getStock();
             
             // Sort sizes for better readability
             List<StockItem> sortedStock = new ArrayList<>(stockItems);
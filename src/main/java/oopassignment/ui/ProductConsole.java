@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import oopassignment.domain.product.ProductRecord;
+import oopassignment.domain.product.ProductStock;
 import oopassignment.domain.product.StockItem;
 import oopassignment.config.AppConfig;
 import oopassignment.service.InventoryService;
@@ -232,7 +233,7 @@ public class ProductConsole {
     
 
     private static void displayProducts() {
-        List<ProductRecord> products = productService.findAll();
+        List<ProductStock> products = productService.findAllWithStock();
         if (products.isEmpty()) {
             System.out.println("No products found.");
             return;
@@ -252,8 +253,9 @@ public class ProductConsole {
         System.out.printf(headerFm, "ID", "Name", "Price", "Category", "Size", "Quantity");
         System.out.println(border);
         
-        for (ProductRecord p : products) {
-            List<StockItem> stockItems = inventoryService.getStockForProduct(p.getProductId());
+        for (ProductStock listing : products) {
+            ProductRecord p = listing.getProduct();
+            List<StockItem> stockItems = listing.getStock();
             
             // Sort sizes for better readability
             List<StockItem> sortedStock = new ArrayList<>(stockItems);
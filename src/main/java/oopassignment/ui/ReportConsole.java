@@ -5,19 +5,21 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.List;
-import java.util.Optional;
 import oopassignment.domain.order.TransactionHeader;
 import oopassignment.domain.order.TransactionItem;
 import oopassignment.domain.product.ProductRecord;
 import oopassignment.domain.auth.EmployeeRecord;
 import oopassignment.domain.auth.Role;
 import oopassignment.domain.report.MemberPurchase;
+import oopassignment.domain.report.MemberPurchasePage;
+import oopassignment.domain.report.SalesReport;
 import oopassignment.domain.report.SalesSummary;
 import oopassignment.service.EmployeeService;
 import oopassignment.service.ReportService;
 import oopassignment.service.ProductService;
 import oopassignment.repository.TransactionRepository;
 import oopassignment.util.ApplicationContext;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
@@ -29,6 +31,7 @@ public class ReportConsole {
     private static final EmployeeService employeeService = ApplicationContext.EMPLOYEE_SERVICE;
     private static final ProductService productService = ApplicationContext.PRODUCT_SERVICE;
     private static final DateTimeFormatter DATETIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final int PURCHASE_PAGE_SIZE = 20;
 
     public static void showMenu() {
         int opt = 0;
@@ -147,21 +150,21 @@ public class ReportConsole {
 
     private static void memberPurchase() {
         String memberId = readRequiredLine("Member ID: ");
-        List<MemberPurchase> purchases;
+        MemberPurchasePage page;
         try {
-            purchases = reportService.getMemberPurchaseHistory(memberId);
+            page = reportService.getMemberPurchasePage(memberId, PURCHASE_PAGE_SIZE, null);
         } catch (Exception ex) {
             System.out.println(ANSI_RED + ex.getMessage() + ANSI_BLACK);
             return;
         }
     
-        if (purchases.isEmpty()) {
+        if (page.getPurchases().isEmpty()) {
             System.out.println("No purchases");
             return;
         }
     
         System.out.println();
-        System.out.println(ANSI_CYAN + "Purchase history for " + memberId + ANSI_BLACK);
+        System.out.println(ANSI_CYAN + "Purchase history for " + memberId + " (newest first)" + ANSI_BLACK);
         System.out.println();
     
         // Single table for all purchases and items
@@ -174,70 +177,99 @@ public class ReportConsole {
         System.out.printf(headerFm, "DateTime", "Amount", "Payment", "Product Name", "Size", "Quantity", "Unit Price", "Line Total");
         System.out.println(border);
     
-        // Get transaction repository to fetch items
-        var transactionRepo = ApplicationContext.TRANSACTION_REPOSITORY;
+        // Each page's lines in one query; names only for the products on the page, remembered across pages
+        Map<String, String> productNames = new HashMap<>();
         
-        for (MemberPurchase p : purchases) {
-            String formattedDateTime = p.getDateTime().format(DATETIME_FORMATTER);
+        while (true) {
+            Map<String, List<TransactionItem>> itemsByTransaction = reportService.getItemsForPurchases(page.getPurchases());
+            resolveProductNames(productNames, itemsByTransaction);
+            for (MemberPurchase p : page.getPurchases()) {
+                String formattedDateTime = p.getDateTime().format(DATETIME_FORMATTER);
             
-            // Fetch transaction items
-            List<TransactionItem> items = transactionRepo.findItemsByTransaction(p.getTransactionId());
+                List<TransactionItem> items = itemsByTransaction.getOrDefault(p.getTransactionId(), List.of());
             
-            if (items.isEmpty()) {
-                // Transaction with no items - show transaction info only
-                System.out.printf(rowFm,
-                    formattedDateTime,
-                    p.getAmount(),
-                    p.getPaymentMethod(),
-                    "N/A",
-                    "N/A",
-                    0,
-                    0.0,
-                    0.0
-                );
-            } else {
-                // First row: show transaction info with first item
-                TransactionItem firstItem = items.get(0);
-                Optional<ProductRecord> productOpt = productService.findById(firstItem.getProductId());
-                String productName = productOpt.map(ProductRecord::getName).orElse(firstItem.getProductId());
-                double lineTotal = firstItem.getUnitPrice() * firstItem.getQuantity();
-                
-                System.out.printf(rowFm,
-                    formattedDateTime,
-                    p.getAmount(),
-                    p.getPaymentMethod(),
-                    productName,
-                    firstItem.getSize(),
-                    firstItem.getQuantity(),
-                    firstItem.getUnitPrice(),
-                    lineTotal
-                );
+                if (items.isEmpty()) {
+                    // Transaction with no items - show transaction info only
+                    System.out.printf(rowFm,
+                        formattedDateTime,
+                        p.getAmount(),
+                        p.getPaymentMethod(),
+                        "N/A",
+                        "N/A",
+                        0,
+                        0.0,
+                        0.0
+                    );
+                } else {
+                    // First row: show transaction info with first item
+                    TransactionItem firstItem = items.get(0);
+                    String productName = productName(productNames, firstItem.getProductId());
+                    double lineTotal = firstItem.getUnitPrice() * firstItem.getQuantity();
                 
-                // Subsequent rows: show only items (empty transaction info columns)
-                for (int i = 1; i < items.size(); i++) {
-                    TransactionItem item = items.get(i);
-                    productOpt = productService.findById(item.getProductId());
-                    productName = productOpt.map(ProductRecord::getName).orElse(item.getProductId());
-                    lineTotal = item.getUnitPrice() * item.getQuantity();
-                    
-                    System.out.printf(emptyRowFm,
-                        "",  // Empty DateTime
-                        "",  // Empty Amount
-                        "",  // Empty Payment
+                    System.out.printf(rowFm,
+                        formattedDateTime,
+                        p.getAmount(),
+                        p.getPaymentMethod(),
                         productName,
-                        item.getSize(),
-                        item.getQuantity(),
-                        item.getUnitPrice(),
+                        firstItem.getSize(),
+                        firstItem.getQuantity(),
+                        firstItem.getUnitPrice(),
                         lineTotal
                     );
+                
+                    // Subsequent rows: show only items (empty transaction info columns)
+                    for (int i = 1; i < items.size(); i++) {
+                        TransactionItem item = items.get(i);
+                        productName = productName(productNames, item.getProductId());
+                        lineTotal = item.getUnitPrice() * item.getQuantity();
+                    
+                        System.out.printf(emptyRowFm,
+                            "",  // Empty DateTime
+                            "",  // Empty Amount
+                            "",  // Empty Payment
+                            productName,
+                            item.getSize(),
+                            item.getQuantity(),
+                            item.getUnitPrice(),
+                            lineTotal
+                        );
+                    }
                 }
             }
+
+            System.out.println(border);
+            if (!page.hasMore() || !readYesNo("Show older purchases? (Y/N): ")) {
+                return;
+            }
+            page = reportService.getMemberPurchasePage(memberId, PURCHASE_PAGE_SIZE, page.getNextCursor());
+            System.out.println(border);
+            System.out.printf(headerFm, "DateTime", "Amount", "Payment", "Product Name", "Size", "Quantity", "Unit Price", "Line Total");
+            System.out.println(border);
         }
-        
-        System.out.println(border);
     }
     
 
+    // Product lookups go through the cached product repository, once per distinct id
+    private static void resolveProductNames(Map<String, String> productNames,
+                                            Map<String, List<TransactionItem>> itemsByTransaction) {
+        for (List<TransactionItem> items : itemsByTransaction.values()) {
+            for (TransactionItem item : items) {
+                if (item.getProductId() == null) {
+                    continue;
+                }
+                productNames.computeIfAbsent(item.getProductId().trim().toUpperCase(),
+                        id -> productService.findById(id).map(ProductRecord::getName).orElse(item.getProductId()));
+            }
+        }
+    }
+
+    private static String productName(Map<String, String> productNames, String productId) {
+        if (productId == null) {
+            return null;
+        }
+        return productNames.getOrDefault(productId.trim().toUpperCase(), productId);
+    }
+
     private static void salesSummary() {
         LocalDate from = readDateStrict("From (yyyy-MM-dd): ");
         LocalDate to = readDateStrict("To   (yyyy-MM-dd): ");
@@ -249,8 +281,9 @@ public class ReportConsole {
         List<TransactionHeader> transactions;
         SalesSummary summary;
         try {
-            transactions = reportService.getTransactionsInRange(from, to);
-            summary = reportService.getSalesSummary(from, to);
+            SalesReport report = reportService.getSalesReport(from, to);
+            transactions = report.getTransactions();
+            summary = report.getSummary();
         } catch (Exception ex) {
             System.out.println(ANSI_RED + ex.getMessage() + ANSI_BLACK);
             return;
@@ -1,14 +1,19 @@
 package oopassignment.util;
 
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import oopassignment.repository.EmployeeRepository;
 import oopassignment.service.EmployeeService;
 import oopassignment.service.AuthService;
 import oopassignment.repository.MemberRepository;
 import oopassignment.service.MemberService;
+import oopassignment.config.AppConfig;
 import oopassignment.config.Database;
 import oopassignment.repository.ProductRepository;
 import oopassignment.repository.StockRepository;
 import oopassignment.service.ProductService;
+import oopassignment.service.IdAllocator;
 import oopassignment.service.InventoryService;
 import oopassignment.repository.TransactionRepository;
 import oopassignment.repository.impl.InMemoryEmployeeRepository;
@@ -16,39 +21,96 @@ import oopassignment.repository.impl.JdbcEmployeeRepository;
 import oopassignment.service.PricingService;
 import oopassignment.service.OrderService;
 import oopassignment.service.ReportService;
+import oopassignment.service.SalesColumnStore;
 import oopassignment.repository.impl.InMemoryMemberRepository;
 import oopassignment.repository.impl.JdbcMemberRepository;
 import oopassignment.repository.impl.InMemoryProductRepository;
 import oopassignment.repository.impl.JdbcProductRepository;
 import oopassignment.repository.impl.InMemoryStockRepository;
+import oopassignment.repository.impl.JdbcSequenceRepository;
 import oopassignment.repository.impl.JdbcStockRepository;
+import oopassignment.repository.impl.CachingProductRepository;
+import oopassignment.repository.impl.GroupCommitTransactionRepository;
 import oopassignment.repository.impl.InMemoryTransactionRepository;
 import oopassignment.repository.impl.JdbcTransactionRepository;
+import oopassignment.repository.impl.NotifyingTransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public final class ApplicationContext {
 
+    private static final Logger LOG = LoggerFactory.getLogger(ApplicationContext.class);
+
     public static final PasswordHasher PASSWORD_HASHER = new PasswordHasher();
+    public static final IdAllocator ID_ALLOCATOR = chooseIdAllocator();
 
     public static final EmployeeRepository EMPLOYEE_REPOSITORY = chooseEmployeeRepository();
-    public static final EmployeeService EMPLOYEE_SERVICE = new EmployeeService(EMPLOYEE_REPOSITORY, PASSWORD_HASHER);
+    public static final EmployeeService EMPLOYEE_SERVICE = new EmployeeService(EMPLOYEE_REPOSITORY, PASSWORD_HASHER, ID_ALLOCATOR);
     public static final AuthService AUTH_SERVICE = new AuthService(EMPLOYEE_REPOSITORY, PASSWORD_HASHER);
 
     public static final MemberRepository MEMBER_REPOSITORY = chooseMemberRepository();
-    public static final MemberService MEMBER_SERVICE = new MemberService(MEMBER_REPOSITORY);
+    public static final MemberService MEMBER_SERVICE = new MemberService(MEMBER_REPOSITORY, ID_ALLOCATOR);
 
     public static final ProductRepository PRODUCT_REPOSITORY = chooseProductRepository();
     public static final StockRepository STOCK_REPOSITORY = chooseStockRepository();
-    public static final ProductService PRODUCT_SERVICE = new ProductService(PRODUCT_REPOSITORY, STOCK_REPOSITORY);
+    public static final ProductService PRODUCT_SERVICE = new ProductService(PRODUCT_REPOSITORY, STOCK_REPOSITORY, ID_ALLOCATOR);
     public static final InventoryService INVENTORY_SERVICE = new InventoryService(STOCK_REPOSITORY);
 
-    public static final TransactionRepository TRANSACTION_REPOSITORY = chooseTransactionRepository();
+    private static final NotifyingTransactionRepository NOTIFYING_TRANSACTION_REPOSITORY =
+            new NotifyingTransactionRepository(chooseTransactionRepository());
+    public static final TransactionRepository TRANSACTION_REPOSITORY = NOTIFYING_TRANSACTION_REPOSITORY;
     public static final PricingService PRICING_SERVICE = new PricingService();
-    public static final OrderService ORDER_SERVICE = new OrderService(PRODUCT_REPOSITORY, INVENTORY_SERVICE, PRICING_SERVICE, TRANSACTION_REPOSITORY, MEMBER_REPOSITORY);
-    public static final ReportService REPORT_SERVICE = new ReportService(TRANSACTION_REPOSITORY);
+    public static final OrderService ORDER_SERVICE = new OrderService(PRODUCT_REPOSITORY, INVENTORY_SERVICE, PRICING_SERVICE, TRANSACTION_REPOSITORY, MEMBER_REPOSITORY, ID_ALLOCATOR);
+    public static final ReportService REPORT_SERVICE = new ReportService(TRANSACTION_REPOSITORY,
+            AppConfig.REPORT_CACHE_SIZE, AppConfig.REPORT_CACHE_TTL_MS,
+            AppConfig.REPORT_COLUMNAR ? new SalesColumnStore() : null);
+
+    static {
+        NOTIFYING_TRANSACTION_REPOSITORY.addListener(REPORT_SERVICE);
+        if (AppConfig.REPORT_COLUMNAR) {
+            scheduleColumnRefresh();
+        }
+    }
 
     private ApplicationContext() {
     }
 
+    /**
+     * Fills the column store off the startup path, then rebuilds it every refresh interval so it catches up with
+     * other terminals. Reports read the repository until the first load finishes.
+     */
+    private static void scheduleColumnRefresh() {
+        ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "bootsdo-report-columns");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Runnable refresh = () -> {
+            try {
+                long started = System.nanoTime();
+                REPORT_SERVICE.refreshColumns();
+                LOG.debug("Report column store loaded in {} ms",
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+            } catch (RuntimeException e) {
+                // A failed run leaves the previous columns in place; the next run tries again
+                LOG.error("Failed to load report column store", e);
+            }
+        };
+        if (AppConfig.REPORT_COLUMNAR_REFRESH_MS > 0) {
+            refresher.scheduleWithFixedDelay(refresh, 0, AppConfig.REPORT_COLUMNAR_REFRESH_MS, TimeUnit.MILLISECONDS);
+        } else {
+            refresher.execute(refresh);
+            refresher.shutdown();
+        }
+    }
+
+    private static IdAllocator chooseIdAllocator() {
+        if (Database.isAvailable()) {
+            return new IdAllocator(new JdbcSequenceRepository(), AppConfig.ID_BLOCK_SIZE);
+        }
+        return new IdAllocator();
+    }
+
     private static EmployeeRepository chooseEmployeeRepository() {
         if (Database.isAvailable()) {
             return new JdbcEmployeeRepository();
@@ -65,7 +127,8 @@ public final class ApplicationContext {
 
     private static ProductRepository chooseProductRepository() {
         if (Database.isAvailable()) {
-            return new JdbcProductRepository();
+            return new CachingProductRepository(new JdbcProductRepository(),
+                    AppConfig.PRODUCT_CACHE_SIZE, AppConfig.PRODUCT_CACHE_TTL_MS);
         }
         return new InMemoryProductRepository();
     }
@@ -79,6 +142,10 @@ public final class ApplicationContext {
 
     private static TransactionRepository chooseTransactionRepository() {
         if (Database.isAvailable()) {
+            if (AppConfig.GROUP_COMMIT_ENABLED) {
+                return new GroupCommitTransactionRepository(new JdbcTransactionRepository(),
+                        AppConfig.GROUP_COMMIT_MAX_DELAY_MS, AppConfig.GROUP_COMMIT_MAX_BATCH);
+            }
             return new JdbcTransactionRepository();
         }
         return new InMemoryTransactionRepository();
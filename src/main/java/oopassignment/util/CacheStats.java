@@ -0,0 +1,75 @@
+package oopassignment.util;
+
+/**
+ * Point-in-time snapshot of a cache's counters, used to size caches and check they are earning their keep.
+ */
+public class CacheStats {
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final long invalidations;
+    private final int size;
+    private final int maxSize;
+    private final long estimatedBytes;
+
+    public CacheStats(long hits, long misses, long evictions, long invalidations, int size, int maxSize) {
+        this(hits, misses, evictions, invalidations, size, maxSize, 0);
+    }
+
+    public CacheStats(long hits, long misses, long evictions, long invalidations, int size, int maxSize,
+                      long estimatedBytes) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.invalidations = invalidations;
+        this.size = size;
+        this.maxSize = maxSize;
+        this.estimatedBytes = estimatedBytes;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    /** Entries dropped to stay within the size bound or because they expired. */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /** Entries dropped because the underlying data changed. */
+    public long getInvalidations() {
+        return invalidations;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /** Rough heap held by cached values; 0 when the cache does not estimate it. */
+    public long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+
+    public double getHitRatio() {
+        long lookups = hits + misses;
+        if (lookups == 0) {
+            return 0.0;
+        }
+        return (double) hits / lookups;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CacheStats[hits=%d, misses=%d, hitRatio=%.2f, evictions=%d, invalidations=%d, "
+                        + "size=%d, max=%d, estimatedBytes=%d]",
+                hits, misses, getHitRatio(), evictions, invalidations, size, maxSize, estimatedBytes);
+    }
+}
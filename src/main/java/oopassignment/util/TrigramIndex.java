@@ -0,0 +1,78 @@
+package oopassignment.util;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Case-insensitive substring index: each key is posted under every three-character slice of its text, so a
+ * search only touches keys sharing the query's rarest trigram instead of every key. Candidates can include false
+ * positives and must be confirmed against the real text.
+ */
+public class TrigramIndex {
+
+    public static final int GRAM = 3;
+
+    private final Map<String, Set<String>> postings = new ConcurrentHashMap<>();
+
+    public void add(String key, String text) {
+        for (String gram : grams(text)) {
+            postings.computeIfAbsent(gram, g -> ConcurrentHashMap.newKeySet()).add(key);
+        }
+    }
+
+    public void remove(String key, String text) {
+        for (String gram : grams(text)) {
+            postings.computeIfPresent(gram, (g, keys) -> {
+                keys.remove(key);
+                return keys.isEmpty() ? null : keys;
+            });
+        }
+    }
+
+    /**
+     * Keys whose text may contain {@code query}. Queries shorter than {@link #GRAM} cannot be answered from the
+     * index and return null, so the caller can fall back to a scan.
+     */
+    public Set<String> candidates(String query) {
+        Set<String> grams = grams(query);
+        if (grams.isEmpty()) {
+            return null;
+        }
+        Set<String> smallest = null;
+        for (String gram : grams) {
+            Set<String> keys = postings.get(gram);
+            if (keys == null) {
+                return Collections.emptySet();
+            }
+            if (smallest == null || keys.size() < smallest.size()) {
+                smallest = keys;
+            }
+        }
+        Set<String> result = new HashSet<>(smallest);
+        for (String gram : grams) {
+            Set<String> keys = postings.get(gram);
+            if (keys == null) {
+                return Collections.emptySet();
+            }
+            if (keys != smallest) {
+                result.retainAll(keys);
+            }
+        }
+        return result;
+    }
+
+    private static Set<String> grams(String text) {
+        if (text == null || text.length() < GRAM) {
+            return Collections.emptySet();
+        }
+        String lower = text.toLowerCase();
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= lower.length(); i++) {
+            grams.add(lower.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+}
@@ -0,0 +1,123 @@
+package oopassignment;
+
+import java.util.List;
+import java.util.Optional;
+import oopassignment.domain.product.ProductRecord;
+import oopassignment.domain.product.ProductStatus;
+import oopassignment.repository.ProductRepository;
+import oopassignment.repository.impl.CachingProductRepository;
+import oopassignment.repository.impl.InMemoryProductRepository;
+import oopassignment.util.CacheStats;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CachingProductRepositoryTest {
+
+    private CountingProductRepository backing;
+    private CachingProductRepository cache;
+
+    @Before
+    public void setUp() {
+        backing = new CountingProductRepository(new InMemoryProductRepository());
+        cache = new CachingProductRepository(backing, 2, 60_000L);
+    }
+
+    @Test
+    public void repeatedLookupsHitTheCache() {
+        assertTrue(cache.findById("P001").isPresent());
+        assertTrue(cache.findById("P001").isPresent());
+        assertTrue(cache.findById("P001").isPresent());
+
+        assertEquals("Only the first lookup reaches the repository", 1, backing.findByIdCalls);
+        CacheStats stats = cache.getStats();
+        assertEquals(2, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(2.0 / 3.0, stats.getHitRatio(), 0.0001);
+    }
+
+    @Test
+    public void leastRecentlyUsedEntryIsEvicted() {
+        cache.save(new ProductRecord("P900", "Sock", "clothes", 5.0, ProductStatus.ACTIVE));
+        cache.findById("P001");
+        cache.findById("P002");
+        cache.findById("P001"); // P002 is now the eldest
+        cache.findById("P900"); // evicts P002
+        cache.findById("P002");
+
+        assertEquals(4, backing.findByIdCalls);
+        assertEquals(2, cache.getStats().getEvictions());
+        assertEquals(2, cache.getStats().getSize());
+    }
+
+    @Test
+    public void writesInvalidateCachedEntry() {
+        ProductRecord product = cache.findById("P001").orElseThrow();
+        product.setPrice(99.0);
+        assertNotEquals("Cached copy is not shared with callers", 99.0, cache.findById("P001").get().getPrice(), 0.0);
+
+        cache.update(product);
+        assertEquals(99.0, cache.findById("P001").get().getPrice(), 0.0);
+        assertEquals(1, cache.getStats().getInvalidations());
+
+        cache.delete("P001");
+        assertFalse(cache.findById("P001").isPresent());
+    }
+
+    @Test
+    public void expiredEntriesAreReloaded() {
+        CachingProductRepository shortLived = new CachingProductRepository(backing, 10, 0L);
+        shortLived.findById("P001");
+        shortLived.findById("P001");
+        assertEquals(2, backing.findByIdCalls);
+        assertEquals(0, shortLived.getStats().getHits());
+    }
+
+    @Test
+    public void missingProductsAreNotCached() {
+        assertFalse(cache.findById("PNONE").isPresent());
+        cache.save(new ProductRecord("PNONE", "Late", "shoes", 1.0, ProductStatus.ACTIVE));
+        assertTrue(cache.findById("PNONE").isPresent());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void sizeMustBePositive() {
+        new CachingProductRepository(backing, 0, 1_000L);
+    }
+
+    private static final class CountingProductRepository implements ProductRepository {
+        private final ProductRepository delegate;
+        private int findByIdCalls;
+
+        private CountingProductRepository(ProductRepository delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public List<ProductRecord> findAll() {
+            return delegate.findAll();
+        }
+
+        @Override
+        public Optional<ProductRecord> findById(String id) {
+            findByIdCalls++;
+            return delegate.findById(id);
+        }
+
+        @Override
+        public void save(ProductRecord product) {
+            delegate.save(product);
+        }
+
+        @Override
+        public void update(ProductRecord product) {
+            delegate.update(product);
+        }
+
+        @Override
+        public void delete(String productId) {
+            delegate.delete(productId);
+        }
+    }
+}
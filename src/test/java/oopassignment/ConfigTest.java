@@ -71,7 +71,7 @@ public class ConfigTest {
 
     @Test
     public void appConfigSchemaVersionExactValue() {
-        assertEquals(2, AppConfig.SCHEMA_VERSION);
+        assertEquals(8, AppConfig.SCHEMA_VERSION);
     }
 
     @Test
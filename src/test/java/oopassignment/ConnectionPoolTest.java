@@ -0,0 +1,243 @@
+package oopassignment;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import oopassignment.config.ConnectionPool;
+import oopassignment.config.Database;
+import oopassignment.config.PoolStats;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the JDBC connection pool (only run if the SQLite driver is available)
+ */
+public class ConnectionPoolTest {
+
+    private static final String MEMORY_URL = "jdbc:sqlite::memory:";
+
+    @Test
+    public void closedConnectionIsReusedAsHit() throws Exception {
+        if (!Database.isAvailable()) return;
+
+        ConnectionPool pool = new ConnectionPool(MEMORY_URL, 2, 60_000L, 1_000L, null);
+        try (Connection first = pool.borrow()) {
+            assertFalse(first.isClosed());
+        }
+        try (Connection second = pool.borrow()) {
+            assertFalse(second.isClosed());
+        }
+        PoolStats stats = pool.getStats();
+        assertEquals("First borrow opens a connection", 1, stats.getMisses());
+        assertEquals("Second borrow reuses it", 1, stats.getHits());
+        assertEquals(0.5, stats.getHitRatio(), 0.0001);
+        assertEquals(1, stats.getIdle());
+        pool.close();
+    }
+
+    @Test
+    public void closedProxyRejectsFurtherUse() throws Exception {
+        if (!Database.isAvailable()) return;
+
+        ConnectionPool pool = new ConnectionPool(MEMORY_URL, 1, 60_000L, 1_000L, null);
+        Connection conn = pool.borrow();
+        conn.close();
+        assertTrue("Returned proxy reports closed", conn.isClosed());
+        try {
+            conn.createStatement();
+            fail("Using a returned connection should fail");
+        } catch (SQLException expected) {
+            // expected
+        }
+        pool.close();
+    }
+
+    @Test
+    public void exhaustedPoolTimesOutAndRecordsWait() throws Exception {
+        if (!Database.isAvailable()) return;
+
+        ConnectionPool pool = new ConnectionPool(MEMORY_URL, 1, 60_000L, 50L, null);
+        try (Connection held = pool.borrow()) {
+            assertNotNull(held);
+            try {
+                pool.borrow();
+                fail("Borrow beyond max size should time out");
+            } catch (SQLException expected) {
+                // expected
+            }
+        }
+        PoolStats stats = pool.getStats();
+        assertEquals(1, stats.getWaits());
+        assertEquals(1, stats.getTimeouts());
+        assertTrue("Wait time should be recorded", stats.getTotalWaitNanos() > 0);
+        pool.close();
+    }
+
+    @Test
+    public void idleConnectionsAreEvicted() throws Exception {
+        if (!Database.isAvailable()) return;
+
+        ConnectionPool pool = new ConnectionPool(MEMORY_URL, 2, 0L, 1_000L, null);
+        pool.borrow().close();
+        pool.borrow().close();
+        PoolStats stats = pool.getStats();
+        assertEquals("Expired idle connection should not be reused", 0, stats.getHits());
+        assertEquals(1, stats.getEvictions());
+        pool.close();
+    }
+
+    @Test
+    public void uncommittedWorkIsRolledBackOnReturn() throws Exception {
+        if (!Database.isAvailable()) return;
+
+        ConnectionPool pool = new ConnectionPool(MEMORY_URL, 1, 60_000L, 1_000L, null);
+        try (Connection conn = pool.borrow(); Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE t(x INTEGER)");
+        }
+        try (Connection conn = pool.borrow()) {
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("INSERT INTO t VALUES (1)");
+            }
+        }
+        try (Connection conn = pool.borrow();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) AS c FROM t")) {
+            assertTrue("Auto-commit should be restored", conn.getAutoCommit());
+            assertTrue(rs.next());
+            assertEquals("Abandoned insert should be rolled back", 0, rs.getInt("c"));
+        }
+        pool.close();
+    }
+
+    @Test
+    public void initializerRunsOncePerPhysicalConnection() throws Exception {
+        if (!Database.isAvailable()) return;
+
+        int[] calls = {0};
+        ConnectionPool pool = new ConnectionPool(MEMORY_URL, 1, 60_000L, 1_000L, conn -> calls[0]++);
+        pool.borrow().close();
+        pool.borrow().close();
+        assertEquals(1, calls[0]);
+        pool.close();
+    }
+
+    @Test
+    public void preparedStatementsAreReusedAcrossBorrows() throws Exception {
+        if (!Database.isAvailable()) return;
+
+        ConnectionPool pool = new ConnectionPool(MEMORY_URL, 1, 60_000L, 1_000L, 8, null);
+        for (int i = 1; i <= 3; i++) {
+            try (Connection conn = pool.borrow();
+                 PreparedStatement ps = conn.prepareStatement("SELECT ? AS v")) {
+                ps.setInt(1, i);
+                try (ResultSet rs = ps.executeQuery()) {
+                    assertTrue(rs.next());
+                    assertEquals(i, rs.getInt("v"));
+                }
+            }
+        }
+        PoolStats stats = pool.getStats();
+        assertEquals("SQL should be parsed once", 1, stats.getStatementMisses());
+        assertEquals(2, stats.getStatementHits());
+        assertEquals(2.0 / 3.0, stats.getStatementHitRatio(), 0.0001);
+        pool.close();
+    }
+
+    @Test
+    public void sameSqlOpenTwiceFallsBackToUncachedStatement() throws Exception {
+        if (!Database.isAvailable()) return;
+
+        ConnectionPool pool = new ConnectionPool(MEMORY_URL, 1, 60_000L, 1_000L, 8, null);
+        try (Connection conn = pool.borrow();
+             PreparedStatement outer = conn.prepareStatement("SELECT 1");
+             PreparedStatement inner = conn.prepareStatement("SELECT 1")) {
+            assertNotSame(outer, inner);
+            try (ResultSet a = outer.executeQuery(); ResultSet b = inner.executeQuery()) {
+                assertTrue(a.next());
+                assertTrue(b.next());
+            }
+        }
+        assertEquals(1, pool.getStats().getStatementMisses());
+        pool.close();
+    }
+
+    @Test
+    public void fullCacheEvictsLeastRecentIdleStatementNotLeasedOne() throws Exception {
+        if (!Database.isAvailable()) return;
+
+        ConnectionPool pool = new ConnectionPool(MEMORY_URL, 1, 60_000L, 1_000L, 2, null);
+        try (Connection conn = pool.borrow();
+             PreparedStatement held = conn.prepareStatement("SELECT 1")) {
+            conn.prepareStatement("SELECT 2").close();
+            // "SELECT 1" is the eldest but leased, so "SELECT 2" makes room
+            conn.prepareStatement("SELECT 3").close();
+            try (ResultSet rs = held.executeQuery()) {
+                assertTrue("Leased statement is still open", rs.next());
+                assertEquals(1, rs.getInt(1));
+            }
+        }
+        try (Connection conn = pool.borrow()) {
+            conn.prepareStatement("SELECT 1").close();
+            conn.prepareStatement("SELECT 3").close();
+        }
+        assertEquals(2, pool.getStats().getStatementHits());
+        try (Connection conn = pool.borrow()) {
+            conn.prepareStatement("SELECT 2").close();
+        }
+        assertEquals("Evicted statement is parsed again", 4, pool.getStats().getStatementMisses());
+        pool.close();
+    }
+
+    @Test
+    public void resultSetOverloadBypassesStatementCache() throws Exception {
+        if (!Database.isAvailable()) return;
+
+        ConnectionPool pool = new ConnectionPool(MEMORY_URL, 1, 60_000L, 1_000L, 8, null);
+        for (int i = 0; i < 2; i++) {
+            try (Connection conn = pool.borrow();
+                 PreparedStatement ps = conn.prepareStatement("SELECT ?, ?", ResultSet.TYPE_FORWARD_ONLY,
+                         ResultSet.CONCUR_READ_ONLY)) {
+                ps.setInt(1, i);
+                ps.setInt(2, i);
+                try (ResultSet rs = ps.executeQuery()) {
+                    assertTrue(rs.next());
+                }
+            }
+        }
+        assertEquals(0, pool.getStats().getStatementMisses());
+        assertEquals(0, pool.getStats().getStatementHits());
+        pool.close();
+    }
+
+    @Test
+    public void closedCachedStatementRejectsUse() throws Exception {
+        if (!Database.isAvailable()) return;
+
+        ConnectionPool pool = new ConnectionPool(MEMORY_URL, 1, 60_000L, 1_000L, 8, null);
+        try (Connection conn = pool.borrow()) {
+            PreparedStatement ps = conn.prepareStatement("SELECT 1");
+            ps.close();
+            assertTrue(ps.isClosed());
+            assertSame("Statement reports its pooled connection", conn, ps.getConnection());
+            try {
+                ps.executeQuery();
+                fail("Closed lease should not execute");
+            } catch (SQLException expected) {
+                // expected
+            }
+        }
+        pool.close();
+    }
+
+    @Test
+    public void databaseExposesPoolStats() {
+        PoolStats stats = Database.getPoolStats();
+        assertNotNull(stats);
+        assertTrue(stats.getMaxSize() > 0);
+        assertNotNull(stats.toString());
+    }
+}
@@ -1141,5 +1141,23 @@ public class DatabaseTest {
             assertEquals("Transaction item should have composite primary key", 2, pkCount);
         }
     }
-}
 
+    @Test
+    public void databaseBootstrapFutureCompletes() throws Exception {
+        assertEquals("Bootstrap result should match availability",
+                Database.isAvailable(), Database.bootstrapAsync().get());
+    }
+
+    @Test
+    public void databaseUserVersionStampedWithSchemaVersion() throws Exception {
+        if (!Database.isAvailable()) return;
+
+        try (Connection conn = Database.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA user_version")) {
+            assertTrue(rs.next());
+            assertEquals("user_version enables the bootstrap fast path",
+                    AppConfig.SCHEMA_VERSION, rs.getInt(1));
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package oopassignment;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+import oopassignment.config.Database;
+import oopassignment.domain.order.TransactionHeader;
+import oopassignment.domain.order.TransactionItem;
+import oopassignment.exception.PersistenceException;
+import oopassignment.repository.impl.GroupCommitStats;
+import oopassignment.repository.impl.GroupCommitTransactionRepository;
+import oopassignment.repository.impl.JdbcTransactionRepository;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the group-commit transaction writer (only run if database is available)
+ */
+public class GroupCommitTransactionRepositoryTest {
+
+    @Test
+    public void concurrentSavesAreAcknowledgedAndPersisted() throws Exception {
+        if (!Database.isAvailable()) return;
+
+        JdbcTransactionRepository jdbc = new JdbcTransactionRepository();
+        GroupCommitTransactionRepository repo = new GroupCommitTransactionRepository(jdbc, 20L, 8);
+        String prefix = "TGC" + System.nanoTime() % 100_000 + "-";
+        int orders = 16;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(orders);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < orders; i++) {
+            String id = prefix + i;
+            futures.add(pool.submit(() -> {
+                start.await();
+                repo.saveTransaction(new TransactionHeader(id, LocalDateTime.now(), null, "WALK-IN", 10.0, "CASH"),
+                        List.of(new TransactionItem(id, 1, "P001", "M", 1, 10.0)));
+                // Acknowledged means readable through a different path
+                assertEquals(1, jdbc.findItemsByTransaction(id).size());
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+        repo.close();
+
+        GroupCommitStats stats = repo.getStats();
+        assertEquals(orders, stats.getTransactions());
+        assertTrue("Concurrent saves should share commits: " + stats, stats.getFlushes() < orders);
+        assertTrue(stats.getLargestFlush() <= 8);
+        assertEquals(0, stats.getFallbacks());
+        assertNotNull(stats.toString());
+    }
+
+    @Test
+    public void failedBatchFallsBackToIndividualSaves() throws Exception {
+        if (!Database.isAvailable()) return;
+
+        JdbcTransactionRepository jdbc = new JdbcTransactionRepository();
+        String id = "TGCDUP" + System.nanoTime() % 100_000;
+        jdbc.saveTransaction(new TransactionHeader(id, LocalDateTime.now(), null, "WALK-IN", 10.0, "CASH"),
+                List.of(new TransactionItem(id, 1, "P001", "M", 1, 10.0)));
+
+        GroupCommitTransactionRepository repo = new GroupCommitTransactionRepository(jdbc, 200L, 2);
+        String fresh = id + "-OK";
+        AtomicReference<RuntimeException> duplicateFailure = new AtomicReference<>();
+        Thread duplicate = new Thread(() -> {
+            try {
+                repo.saveTransaction(new TransactionHeader(id, LocalDateTime.now(), null, "WALK-IN", 99.0, "CARD"),
+                        List.of(new TransactionItem(id, 1, "P002", "42", 1, 99.0)));
+            } catch (RuntimeException e) {
+                duplicateFailure.set(e);
+            }
+        });
+        duplicate.start();
+        repo.saveTransaction(new TransactionHeader(fresh, LocalDateTime.now(), null, "WALK-IN", 5.0, "CASH"),
+                List.of(new TransactionItem(fresh, 1, "P001", "M", 1, 5.0)));
+        duplicate.join();
+        repo.close();
+
+        assertTrue("Failed write is reported to its caller: " + duplicateFailure.get(),
+                duplicateFailure.get() instanceof PersistenceException);
+
+        assertEquals("Good order survives a bad neighbour", 1, jdbc.findItemsByTransaction(fresh).size());
+        assertEquals("Original order is untouched", "P001", jdbc.findItemsByTransaction(id).get(0).getProductId());
+        assertEquals(2, repo.getStats().getTransactions());
+    }
+
+    @Test
+    public void saveAfterCloseWritesDirectly() {
+        if (!Database.isAvailable()) return;
+
+        JdbcTransactionRepository jdbc = new JdbcTransactionRepository();
+        GroupCommitTransactionRepository repo = new GroupCommitTransactionRepository(jdbc, 5L, 4);
+        repo.close();
+        String id = "TGCCLOSED" + System.nanoTime() % 100_000;
+        repo.saveTransaction(new TransactionHeader(id, LocalDateTime.now(), null, "WALK-IN", 10.0, "CASH"),
+                List.of(new TransactionItem(id, 1, "P001", "M", 1, 10.0)));
+        assertEquals(1, repo.findItemsByTransaction(id).size());
+        assertEquals(0, repo.getStats().getFlushes());
+    }
+
+    @Test
+    public void savesRacingCloseAreAllFlushed() throws Exception {
+        if (!Database.isAvailable()) return;
+
+        JdbcTransactionRepository jdbc = new JdbcTransactionRepository();
+        String prefix = "TGCRACE" + System.nanoTime() % 100_000 + "-";
+        for (int round = 0; round < 20; round++) {
+            GroupCommitTransactionRepository repo = new GroupCommitTransactionRepository(jdbc, 1L, 4);
+            String id = prefix + round;
+            Thread saver = new Thread(() -> repo.saveTransaction(
+                    new TransactionHeader(id, LocalDateTime.now(), null, "WALK-IN", 1.0, "CASH"), List.of()));
+            saver.start();
+            repo.close();
+            saver.join(10_000L);
+            assertFalse("Save racing close() must not hang", saver.isAlive());
+            assertTrue(id, jdbc.findAllHeaders().stream().anyMatch(h -> id.equals(h.getTransactionId())));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void batchSizeMustBePositive() {
+        new GroupCommitTransactionRepository(new JdbcTransactionRepository(), 5L, 0);
+    }
+}
@@ -0,0 +1,82 @@
+package oopassignment;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import oopassignment.repository.SequenceRepository;
+import oopassignment.repository.impl.InMemorySequenceRepository;
+import oopassignment.service.IdAllocator;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class IdAllocatorTest {
+
+    @Test
+    public void firstIdFollowsExistingMaximum() {
+        IdAllocator allocator = new IdAllocator(new InMemorySequenceRepository(), 10);
+        String id = allocator.nextId("product", "P", 3,
+                () -> IdAllocator.maxSuffix(List.of("P001", "P007", "PX", "Q999"), "P"), existing -> false);
+        assertEquals("P008", id);
+    }
+
+    @Test
+    public void storageIsTouchedOncePerBlock() {
+        int[] reservations = {0};
+        InMemorySequenceRepository backing = new InMemorySequenceRepository();
+        SequenceRepository counting = (name, blockSize, currentMax) -> {
+            reservations[0]++;
+            return backing.reserveBlock(name, blockSize, currentMax);
+        };
+        int[] seeds = {0};
+        IdAllocator allocator = new IdAllocator(counting, 5);
+        for (int i = 1; i <= 12; i++) {
+            assertEquals(i, allocator.next("transaction", () -> {
+                seeds[0]++;
+                return 0;
+            }));
+        }
+        assertEquals("12 ids from blocks of 5", 3, reservations[0]);
+        assertEquals("Existing ids are only scanned once", 1, seeds[0]);
+    }
+
+    @Test
+    public void numbersGrowPastPaddedWidth() {
+        IdAllocator allocator = new IdAllocator(new InMemorySequenceRepository(), 2);
+        assertEquals("T9999", IdAllocator.format("T", 4, allocator.next("transaction", () -> 9998)));
+        assertEquals("T10000", IdAllocator.format("T", 4, allocator.next("transaction", () -> 9998)));
+        assertEquals(10000, IdAllocator.maxSuffix(List.of("T9999", "T10000"), "T"));
+    }
+
+    @Test
+    public void idsAlreadyTakenAreSkipped() {
+        IdAllocator allocator = new IdAllocator(new InMemorySequenceRepository(), 10);
+        Set<String> taken = Set.of("MB001", "MB002");
+        assertEquals("MB003", allocator.nextId("member", "MB", 3, () -> 0, taken::contains));
+    }
+
+    @Test
+    public void concurrentCallersNeverShareAnId() throws Exception {
+        IdAllocator allocator = new IdAllocator(new InMemorySequenceRepository(), 3);
+        Set<Long> seen = java.util.Collections.synchronizedSet(new HashSet<>());
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 50; i++) {
+                    seen.add(allocator.next("order", () -> 0));
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(200, seen.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void blockSizeMustBePositive() {
+        new IdAllocator(new InMemorySequenceRepository(), 0);
+    }
+}
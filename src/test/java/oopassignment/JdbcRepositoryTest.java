@@ -1,5 +1,7 @@
 package oopassignment;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -11,9 +13,12 @@ import oopassignment.domain.auth.Role;
 import oopassignment.domain.member.MemberRecord;
 import oopassignment.domain.member.MemberStatus;
 import oopassignment.domain.order.TransactionHeader;
+import oopassignment.domain.order.TransactionHeaderPage;
 import oopassignment.domain.order.TransactionItem;
 import oopassignment.domain.product.ProductRecord;
 import oopassignment.domain.product.ProductStatus;
+import oopassignment.domain.product.StockItem;
+import oopassignment.exception.PersistenceException;
 import oopassignment.repository.impl.*;
 import org.junit.Before;
 import org.junit.Test;
@@ -140,6 +145,58 @@ public class JdbcRepositoryTest {
         assertNotNull("Should return list", results);
     }
 
+    @Test
+    public void jdbcMemberRepositorySearchUsesIndexAndFollowsRenames() {
+        if (!dbAvailable) return;
+
+        JdbcMemberRepository repo = new JdbcMemberRepository();
+        MemberRecord exact = new MemberRecord("MBFTS1", "Quokkaby Test", "501234567801",
+                0, LocalDate.now(), MemberStatus.ACTIVE);
+        MemberRecord inner = new MemberRecord("MBFTS2", "Test Quokkaby Quokkaby", "501234567802",
+                0, LocalDate.now(), MemberStatus.ACTIVE);
+        repo.save(exact);
+        repo.save(inner);
+
+        List<MemberRecord> found = repo.searchByName("QUOKKAB", 10);
+        assertEquals(2, found.size());
+        assertEquals("Capped at the limit", 1, repo.searchByName("quokkab", 1).size());
+        assertTrue("Short keywords fall back to LIKE",
+                repo.searchByName("uo", 500).stream().anyMatch(m -> m.getMemberId().equals("MBFTS1")));
+
+        inner.setName("Renamed Member");
+        repo.update(inner);
+        List<MemberRecord> afterRename = repo.searchByName("quokkab", 10);
+        assertEquals(1, afterRename.size());
+        assertEquals("MBFTS1", afterRename.get(0).getMemberId());
+        assertTrue(repo.searchByName("", 10).isEmpty());
+    }
+
+    @Test
+    public void jdbcMemberRepositoryBalanceUpdateLeavesSearchIndexAlone() throws Exception {
+        if (!dbAvailable) return;
+
+        JdbcMemberRepository repo = new JdbcMemberRepository();
+        MemberRecord member = new MemberRecord("MBFTS3", "Wombatish Test", "501234567803",
+                100.0, LocalDate.now(), MemberStatus.ACTIVE);
+        repo.save(member);
+        if (repo.searchByName("wombatish", 10).isEmpty()) return; // no FTS5 in this SQLite build
+
+        // Drop the index row by hand: a balance-only update must not write it back, a rename must
+        try (Connection conn = Database.getConnection();
+             PreparedStatement ps = conn.prepareStatement(
+                     "DELETE FROM member_fts WHERE rowid = (SELECT rowid FROM member WHERE member_id = 'MBFTS3')")) {
+            ps.executeUpdate();
+        }
+        member.setCreditBalance(80.0);
+        repo.update(member);
+        assertTrue(repo.searchByName("wombatish", 10).isEmpty());
+        assertEquals(80.0, repo.findById("MBFTS3").orElseThrow().getCreditBalance(), 0.001);
+
+        member.setName("Wombatish Renamed");
+        repo.update(member);
+        assertEquals(1, repo.searchByName("wombatish", 10).size());
+    }
+
     @Test
     public void jdbcMemberRepositoryUpdate() {
         if (!dbAvailable) return;
@@ -257,6 +314,147 @@ public class JdbcRepositoryTest {
         repo.setQuantity("P001", "TESTDEC", 0);
     }
 
+    @Test
+    public void jdbcStockRepositoryTryDecreaseRefusesOversell() {
+        if (!dbAvailable) return;
+
+        JdbcStockRepository repo = new JdbcStockRepository();
+
+        repo.setQuantity("P001", "TESTTRY", 3);
+        assertTrue(repo.tryDecreaseQuantity("p001", "testtry", 2));
+        assertFalse("Only 1 left", repo.tryDecreaseQuantity("P001", "TESTTRY", 2));
+        assertEquals("Failed decrement leaves stock untouched", 1, repo.getQuantity("P001", "TESTTRY"));
+        assertFalse("Missing row cannot be decremented", repo.tryDecreaseQuantity("P001", "TESTNONE", 1));
+
+        // Cleanup
+        repo.setQuantity("P001", "TESTTRY", 0);
+    }
+
+    @Test
+    public void jdbcStockRepositoryDecrementTouchesOneRowWhenCaseVariantsExist() throws Exception {
+        if (!dbAvailable) return;
+
+        JdbcStockRepository repo = new JdbcStockRepository();
+        repo.setQuantity("P001", "TESTCASE", 5);
+        try (Connection conn = Database.getConnection();
+             PreparedStatement ps = conn.prepareStatement(
+                     "INSERT OR REPLACE INTO stock(product_id, size, quantity) VALUES('p001', 'testcase', 5)")) {
+            ps.executeUpdate();
+        }
+        try {
+            assertTrue(repo.tryDecreaseQuantity("p001", "testcase", 2));
+            int normalized = 0;
+            int legacy = 0;
+            for (StockItem item : repo.findByProductId("P001")) {
+                if ("P001".equals(item.getProductId()) && "TESTCASE".equals(item.getSize())) {
+                    normalized = item.getQuantity();
+                } else if ("p001".equals(item.getProductId()) && "testcase".equals(item.getSize())) {
+                    legacy = item.getQuantity();
+                }
+            }
+            assertEquals("Normalized row takes the decrement", 3, normalized);
+            assertEquals("Case variant is left alone", 5, legacy);
+        } finally {
+            try (Connection conn = Database.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(
+                         "DELETE FROM stock WHERE size = 'testcase' OR size = 'TESTCASE'")) {
+                ps.executeUpdate();
+            }
+        }
+    }
+
+    @Test
+    public void jdbcStockRepositoryConcurrentDecrementsNeverOversell() throws Exception {
+        if (!dbAvailable) return;
+
+        JdbcStockRepository repo = new JdbcStockRepository();
+        repo.setQuantity("P001", "TESTRACE", 5);
+        java.util.concurrent.atomic.AtomicInteger sold = new java.util.concurrent.atomic.AtomicInteger();
+        List<Thread> terminals = new java.util.ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            terminals.add(new Thread(() -> {
+                if (repo.tryDecreaseQuantity("P001", "TESTRACE", 1)) {
+                    sold.incrementAndGet();
+                }
+            }));
+        }
+        terminals.forEach(Thread::start);
+        for (Thread t : terminals) {
+            t.join();
+        }
+        assertEquals(5, sold.get());
+        assertEquals(0, repo.getQuantity("P001", "TESTRACE"));
+    }
+
+    @Test
+    public void jdbcStockRepositoryBulkReadsGroupByProduct() {
+        if (!dbAvailable) return;
+
+        JdbcStockRepository repo = new JdbcStockRepository();
+        repo.setQuantity("P001", "TESTBULK", 7);
+
+        var grouped = repo.findAllGroupedByProduct();
+        assertTrue(grouped.get("P001").stream().anyMatch(s -> s.getSize().equals("TESTBULK") && s.getQuantity() == 7));
+        assertEquals(repo.findByProductId("P001").size(), grouped.get("P001").size());
+
+        var selected = repo.findByProductIds(List.of("p001", "PXXX"));
+        assertEquals("Lookup is case-insensitive and skips products without stock",
+                java.util.Set.of("P001"), selected.keySet());
+        assertEquals(grouped.get("P001").size(), selected.get("P001").size());
+        assertTrue(repo.findByProductIds(List.of()).isEmpty());
+
+        // Cleanup
+        repo.setQuantity("P001", "TESTBULK", 0);
+    }
+
+    @Test
+    public void jdbcStockRepositoryIncreaseCreatesMissingRow() {
+        if (!dbAvailable) return;
+
+        JdbcStockRepository repo = new JdbcStockRepository();
+        repo.setQuantity("P001", "TESTNEW", 0);
+        repo.increaseQuantity("p001", "testnew", 4);
+        repo.increaseQuantity("P001", "TESTNEW", 1);
+        assertEquals(5, repo.getQuantity("P001", "TESTNEW"));
+
+        // Cleanup
+        repo.setQuantity("P001", "TESTNEW", 0);
+    }
+
+    @Test
+    public void jdbcSequenceRepositoryReservesDisjointBlocks() {
+        if (!dbAvailable) return;
+
+        JdbcSequenceRepository repo = new JdbcSequenceRepository();
+        String name = "test." + System.nanoTime();
+        int[] seeds = {0};
+        long first = repo.reserveBlock(name, 10, () -> {
+            seeds[0]++;
+            return 41;
+        });
+        long second = repo.reserveBlock(name, 10, () -> {
+            seeds[0]++;
+            return 0;
+        });
+        assertEquals("Seeded after the current max", 42, first);
+        assertEquals(52, second);
+        assertEquals("Seed is only computed for a new sequence", 1, seeds[0]);
+    }
+
+    @Test
+    public void jdbcSequenceRepositorySeedsWithoutHoldingAConnection() {
+        if (!dbAvailable) return;
+
+        JdbcSequenceRepository repo = new JdbcSequenceRepository();
+        int[] activeWhileSeeding = {-1};
+        repo.reserveBlock("test." + System.nanoTime(), 10, () -> {
+            // The real seed scans through the same pool, which would block forever with poolSize=1
+            activeWhileSeeding[0] = Database.getPoolStats().getActive();
+            return 0;
+        });
+        assertEquals(0, activeWhileSeeding[0]);
+    }
+
     @Test
     public void jdbcStockRepositoryGetTotalQuantity() {
         if (!dbAvailable) return;
@@ -301,6 +499,156 @@ public class JdbcRepositoryTest {
         assertNotNull("Should return list", headers);
     }
 
+    @Test
+    public void jdbcTransactionRepositoryStreamMatchesListAndReleasesConnection() {
+        if (!dbAvailable) return;
+
+        JdbcTransactionRepository repo = new JdbcTransactionRepository();
+        String id = "TSTREAM" + System.nanoTime();
+        repo.saveTransaction(new TransactionHeader(id, LocalDateTime.now(), null, "WALK-IN", 12.0, "CASH"),
+                List.of(new TransactionItem(id, 1, "P001", "M", 1, 12.0)));
+
+        int activeBefore = Database.getPoolStats().getActive();
+        List<String> streamed;
+        try (java.util.stream.Stream<TransactionHeader> headers = repo.streamHeaders()) {
+            assertEquals("Open cursor holds a connection", activeBefore + 1, Database.getPoolStats().getActive());
+            streamed = headers.map(TransactionHeader::getTransactionId).collect(java.util.stream.Collectors.toList());
+        }
+        assertEquals("Closing the stream returns the connection", activeBefore, Database.getPoolStats().getActive());
+        assertTrue(streamed.contains(id));
+        assertEquals(repo.findAllHeaders().stream().map(TransactionHeader::getTransactionId)
+                .collect(java.util.stream.Collectors.toList()), streamed);
+    }
+
+    @Test
+    public void jdbcTransactionRepositoryRangeStreamFiltersInSql() {
+        if (!dbAvailable) return;
+
+        JdbcTransactionRepository repo = new JdbcTransactionRepository();
+        String id = "TRANGE" + System.nanoTime();
+        LocalDateTime when = LocalDateTime.of(2001, 3, 15, 23, 59, 30);
+        repo.saveTransaction(new TransactionHeader(id, when, null, "WALK-IN", 12.0, "CASH"), List.of());
+
+        try (java.util.stream.Stream<TransactionHeader> headers =
+                     repo.streamHeadersBetween(LocalDate.of(2001, 3, 15), LocalDate.of(2001, 3, 15))) {
+            assertTrue("Last minute of the day is inside an inclusive to-date",
+                    headers.anyMatch(h -> id.equals(h.getTransactionId())));
+        }
+        try (java.util.stream.Stream<TransactionHeader> headers =
+                     repo.streamHeadersBetween(LocalDate.of(2001, 3, 16), null)) {
+            assertTrue(headers.noneMatch(h -> id.equals(h.getTransactionId())));
+        }
+        try (java.util.stream.Stream<TransactionHeader> headers = repo.streamHeadersBetween(null, null)) {
+            assertTrue("Open bounds return everything", headers.anyMatch(h -> id.equals(h.getTransactionId())));
+        }
+    }
+
+    @Test
+    public void jdbcTransactionRepositorySummarizesInSql() {
+        if (!dbAvailable) return;
+
+        JdbcTransactionRepository repo = new JdbcTransactionRepository();
+        String id = "TSUM" + System.nanoTime();
+        LocalDateTime when = LocalDateTime.of(1999, 7, 4, 9, 0);
+        LocalDate day = when.toLocalDate();
+        oopassignment.domain.report.SalesSummary before = repo.summarizeSales(day, day);
+        repo.saveTransaction(new TransactionHeader(id + "A", when, null, "WALK-IN", 12.5, "CASH"), List.of());
+        repo.saveTransaction(new TransactionHeader(id + "B", when.plusHours(3), null, "WALK-IN", 7.5, "CARD"), List.of());
+        repo.saveTransaction(new TransactionHeader(id + "C", when.plusDays(1), null, "WALK-IN", 99.0, "CARD"), List.of());
+
+        oopassignment.domain.report.SalesSummary after = repo.summarizeSales(day, day);
+        assertEquals(2, after.getTransactionCount() - before.getTransactionCount());
+        assertEquals(20.0, after.getTotalAmount() - before.getTotalAmount(), 0.001);
+    }
+
+    @Test
+    public void jdbcDailySalesRollupFollowsSaveAmendAndGroupCommit() throws Exception {
+        if (!dbAvailable) return;
+
+        JdbcTransactionRepository repo = new JdbcTransactionRepository();
+        String id = "TROLL" + System.nanoTime();
+        LocalDateTime when = LocalDateTime.of(1998, 3, 2, 10, 0);
+        LocalDate day = when.toLocalDate();
+        LocalDate nextDay = day.plusDays(1);
+        oopassignment.domain.report.SalesSummary dayBefore = repo.summarizeSales(day, day);
+        oopassignment.domain.report.SalesSummary nextBefore = repo.summarizeSales(nextDay, nextDay);
+
+        repo.saveTransaction(new TransactionHeader(id + "A", when, null, "WALK-IN", 10.0, "CASH"), List.of());
+        java.util.Map<TransactionHeader, List<TransactionItem>> batch = new java.util.LinkedHashMap<>();
+        batch.put(new TransactionHeader(id + "B", when.plusHours(1), null, "WALK-IN", 5.0, "CASH"), List.of());
+        batch.put(new TransactionHeader(id + "C", when.plusHours(2), null, "WALK-IN", 2.5, "CASH"), List.of());
+        assertTrue(repo.saveTransactions(batch));
+        assertEquals(3, repo.summarizeSales(day, day).getTransactionCount() - dayBefore.getTransactionCount());
+        assertEquals(17.5, repo.summarizeSales(day, day).getTotalAmount() - dayBefore.getTotalAmount(), 0.001);
+
+        // Amend moves one sale to the next day with a new amount and payment method
+        repo.amendTransaction(new TransactionHeader(id + "A", when.plusDays(1), null, "WALK-IN", 40.0, "CARD"),
+                List.of());
+        assertEquals(2, repo.summarizeSales(day, day).getTransactionCount() - dayBefore.getTransactionCount());
+        assertEquals(7.5, repo.summarizeSales(day, day).getTotalAmount() - dayBefore.getTotalAmount(), 0.001);
+        assertEquals(40.0, repo.summarizeSales(nextDay, nextDay).getTotalAmount() - nextBefore.getTotalAmount(), 0.001);
+
+        // The rollup agrees with the raw headers, before and after a rebuild
+        double raw;
+        try (java.util.stream.Stream<TransactionHeader> headers = repo.streamHeadersBetween(day, nextDay)) {
+            raw = headers.mapToDouble(TransactionHeader::getTotalAmount).sum();
+        }
+        assertEquals(raw, repo.summarizeSales(day, nextDay).getTotalAmount(), 0.001);
+        assertTrue(Database.rebuildDailySales() > 0);
+        assertEquals(raw, repo.summarizeSales(day, nextDay).getTotalAmount(), 0.001);
+    }
+
+    @Test
+    public void jdbcTransactionRepositoryBulkItemFetchSpansChunks() {
+        if (!dbAvailable) return;
+
+        JdbcTransactionRepository repo = new JdbcTransactionRepository();
+        String prefix = "TBULK" + System.nanoTime() + "-";
+        List<String> ids = new java.util.ArrayList<>();
+        for (int i = 0; i < 520; i++) {
+            String id = prefix + i;
+            ids.add(id);
+            repo.saveTransaction(new TransactionHeader(id, LocalDateTime.now(), "MB001", "MEMBER", 10.0, "CASH"),
+                    List.of(new TransactionItem(id, 1, "P001", "M", 1, 4.0),
+                            new TransactionItem(id, 2, "P002", "42", 1, 6.0)));
+        }
+
+        java.util.Map<String, List<TransactionItem>> items = repo.findItemsByTransactions(ids);
+        assertEquals("Every transaction across both IN chunks", 520, items.size());
+        List<TransactionItem> last = items.get(prefix + 519);
+        assertEquals(2, last.size());
+        assertEquals("Lines keep their order", 1, last.get(0).getLineNo());
+        assertTrue(repo.findItemsByTransactions(List.of()).isEmpty());
+    }
+
+    @Test
+    public void jdbcTransactionRepositoryPagesMemberHistory() {
+        if (!dbAvailable) return;
+
+        JdbcTransactionRepository repo = new JdbcTransactionRepository();
+        String member = "MBPAGE" + System.nanoTime();
+        LocalDateTime base = LocalDateTime.of(2023, 5, 1, 8, 0);
+        for (int i = 0; i < 5; i++) {
+            String id = member + "-T" + i;
+            // Two transactions share a timestamp to exercise the transaction_id tiebreak
+            repo.saveTransaction(new TransactionHeader(id, base.plusHours(Math.min(i, 3)), member, "MEMBER", 1.0, "CASH"),
+                    List.of());
+        }
+
+        List<String> seen = new java.util.ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            TransactionHeaderPage page = repo.findHeadersByMember(member, 2, cursor);
+            page.getHeaders().forEach(h -> seen.add(h.getTransactionId()));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(3, pages);
+        assertEquals(List.of(member + "-T4", member + "-T3", member + "-T2", member + "-T1", member + "-T0"), seen);
+    }
+
     @Test
     public void jdbcTransactionRepositoryWithMultipleItems() {
         if (!dbAvailable) return;
@@ -317,5 +665,64 @@ public class JdbcRepositoryTest {
         List<TransactionItem> items = repo.findItemsByTransaction("TTEST2");
         assertEquals("Should have 2 items", 2, items.size());
     }
-}
 
+    @Test
+    public void jdbcTransactionRepositoryBatchesLargeCart() {
+        if (!dbAvailable) return;
+
+        JdbcTransactionRepository repo = new JdbcTransactionRepository();
+        String id = "TBATCH" + System.nanoTime();
+        List<TransactionItem> lines = new java.util.ArrayList<>();
+        for (int i = 1; i <= 50; i++) {
+            lines.add(new TransactionItem(id, i, "P001", "M", 1, 19.90));
+        }
+        repo.saveTransaction(new TransactionHeader(id, LocalDateTime.now(), null, "WALK-IN", 995.0, "CASH"), lines);
+
+        List<TransactionItem> items = repo.findItemsByTransaction(id);
+        assertEquals("All 50 lines should be written", 50, items.size());
+        assertEquals(50, items.get(49).getLineNo());
+    }
+
+    @Test
+    public void jdbcTransactionRepositorySaveDoesNotOverwriteExisting() {
+        if (!dbAvailable) return;
+
+        JdbcTransactionRepository repo = new JdbcTransactionRepository();
+        String id = "TDUP" + System.nanoTime();
+        repo.saveTransaction(new TransactionHeader(id, LocalDateTime.now(), null, "WALK-IN", 10.0, "CASH"),
+                List.of(new TransactionItem(id, 1, "P001", "M", 1, 10.0)));
+        try {
+            repo.saveTransaction(new TransactionHeader(id, LocalDateTime.now(), null, "WALK-IN", 99.0, "CARD"),
+                    List.of(new TransactionItem(id, 1, "P002", "42", 1, 99.0)));
+            fail("Duplicate save should report the failed commit");
+        } catch (PersistenceException expected) {
+            // expected
+        }
+
+        TransactionHeader stored = repo.findAllHeaders().stream()
+                .filter(h -> id.equals(h.getTransactionId())).findFirst().orElseThrow();
+        assertEquals("Duplicate save should be rejected", 10.0, stored.getTotalAmount(), 0.001);
+        assertEquals("P001", repo.findItemsByTransaction(id).get(0).getProductId());
+    }
+
+    @Test
+    public void jdbcTransactionRepositoryAmendReplacesLines() {
+        if (!dbAvailable) return;
+
+        JdbcTransactionRepository repo = new JdbcTransactionRepository();
+        String id = "TAMEND" + System.nanoTime();
+        repo.saveTransaction(new TransactionHeader(id, LocalDateTime.now(), null, "WALK-IN", 30.0, "CASH"),
+                List.of(new TransactionItem(id, 1, "P001", "M", 1, 10.0),
+                        new TransactionItem(id, 2, "P001", "L", 2, 10.0)));
+        repo.amendTransaction(new TransactionHeader(id, LocalDateTime.now(), null, "WALK-IN", 120.0, "CARD"),
+                List.of(new TransactionItem(id, 1, "P002", "42", 1, 120.0)));
+
+        List<TransactionItem> items = repo.findItemsByTransaction(id);
+        assertEquals("Dropped lines should be removed", 1, items.size());
+        assertEquals("P002", items.get(0).getProductId());
+        TransactionHeader stored = repo.findAllHeaders().stream()
+                .filter(h -> id.equals(h.getTransactionId())).findFirst().orElseThrow();
+        assertEquals(120.0, stored.getTotalAmount(), 0.001);
+        assertEquals("CARD", stored.getPaymentMethod());
+    }
+}
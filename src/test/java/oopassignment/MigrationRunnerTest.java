@@ -0,0 +1,181 @@
+package oopassignment;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import oopassignment.config.Database;
+import oopassignment.config.Migration;
+import oopassignment.config.MigrationRunner;
+import oopassignment.config.Migrations;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the chunked migration runner against a scratch SQLite file (only run if the driver is available)
+ */
+public class MigrationRunnerTest {
+
+    private File dbFile;
+    private Connection conn;
+
+    @Before
+    public void setUp() throws Exception {
+        if (!Database.isAvailable()) return;
+        dbFile = File.createTempFile("bootsdo-migration", ".db");
+        conn = DriverManager.getConnection("jdbc:sqlite:" + dbFile.getAbsolutePath());
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE schema_version(version INTEGER PRIMARY KEY, applied_at TEXT NOT NULL)");
+        }
+        conn.setAutoCommit(false);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (conn != null) {
+            conn.close();
+        }
+        if (dbFile != null) {
+            dbFile.delete();
+        }
+    }
+
+    @Test
+    public void customerTypeMigrationMovesRowsInChunks() throws Exception {
+        if (!Database.isAvailable()) return;
+
+        createLegacyHeaderTable(25);
+        MigrationRunner runner = new MigrationRunner(Migrations.all(), 10);
+        assertEquals(1, runner.migrate(conn, 1, 2));
+
+        assertEquals(25, count("SELECT COUNT(*) FROM transaction_header"));
+        assertEquals(13, count("SELECT COUNT(*) FROM transaction_header WHERE customer_type = 'MEMBER'"));
+        assertEquals(12, count("SELECT COUNT(*) FROM transaction_header WHERE customer_type = 'WALK-IN'"));
+        assertEquals(0, count("SELECT COUNT(*) FROM pragma_table_info('transaction_header') WHERE name = 'customer_id'"));
+        assertEquals(0, count("SELECT COUNT(*) FROM sqlite_master WHERE name IN ('transaction_header_new', 'customer')"));
+        assertEquals("Checkpoints are cleared once the version is recorded",
+                0, count("SELECT COUNT(*) FROM migration_checkpoint"));
+        assertEquals(2, count("SELECT MAX(version) FROM schema_version"));
+    }
+
+    @Test
+    public void interruptedCopyResumesFromCheckpoint() throws Exception {
+        if (!Database.isAvailable()) return;
+
+        createLegacyHeaderTable(25);
+        // Simulate a previous run that moved the first 10 rows and then stopped
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("""
+                    CREATE TABLE transaction_header_new(
+                        transaction_id TEXT PRIMARY KEY, datetime TEXT NOT NULL, member_id TEXT,
+                        customer_type TEXT NOT NULL, total_amount REAL NOT NULL, payment_method TEXT NOT NULL)
+                    """);
+            stmt.executeUpdate("""
+                    INSERT INTO transaction_header_new
+                    SELECT transaction_id, datetime, member_id, 'WALK-IN', total_amount, payment_method
+                    FROM transaction_header WHERE rowid <= 10
+                    """);
+            stmt.executeUpdate("DELETE FROM transaction_header WHERE rowid <= 10");
+            stmt.executeUpdate("""
+                    CREATE TABLE migration_checkpoint(version INTEGER NOT NULL, step TEXT NOT NULL,
+                        last_rowid INTEGER NOT NULL, updated_at TEXT NOT NULL, PRIMARY KEY(version, step))
+                    """);
+            stmt.executeUpdate("INSERT INTO migration_checkpoint VALUES (2, 'copy_transaction_header', 10, 'now')");
+        }
+        conn.commit();
+
+        long[] moved = {0};
+        Migration probe = new Migration() {
+            @Override
+            public int getVersion() {
+                return 2;
+            }
+
+            @Override
+            public String getDescription() {
+                return "probe";
+            }
+
+            @Override
+            public void apply(Connection c, MigrationRunner runner) throws SQLException {
+                moved[0] = runner.moveRowsInChunks(c, 2, "copy_transaction_header", "transaction_header",
+                        "transaction_header_new",
+                        "transaction_id, datetime, member_id, customer_type, total_amount, payment_method",
+                        "transaction_id, datetime, member_id, 'WALK-IN', total_amount, payment_method");
+            }
+        };
+        new MigrationRunner(List.of(probe), 4).migrate(conn, 1, 2);
+
+        assertEquals("Only the remaining rows are moved", 15, moved[0]);
+        assertEquals(25, count("SELECT COUNT(*) FROM transaction_header_new"));
+        assertEquals(0, count("SELECT COUNT(*) FROM transaction_header"));
+    }
+
+    @Test
+    public void migrationsRunInVersionOrderAndSkipApplied() throws Exception {
+        if (!Database.isAvailable()) return;
+
+        List<Integer> order = new ArrayList<>();
+        List<Migration> migrations = List.of(recording(5, order), recording(3, order), recording(4, order));
+        int applied = new MigrationRunner(migrations, 10).migrate(conn, 3, 5);
+
+        assertEquals(2, applied);
+        assertEquals(List.of(4, 5), order);
+        assertEquals(5, count("SELECT MAX(version) FROM schema_version"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void chunkSizeMustBePositive() {
+        new MigrationRunner(List.of(), 0);
+    }
+
+    private Migration recording(int version, List<Integer> order) {
+        return new Migration() {
+            @Override
+            public int getVersion() {
+                return version;
+            }
+
+            @Override
+            public String getDescription() {
+                return "v" + version;
+            }
+
+            @Override
+            public void apply(Connection c, MigrationRunner runner) {
+                order.add(version);
+            }
+        };
+    }
+
+    private void createLegacyHeaderTable(int rows) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("""
+                    CREATE TABLE transaction_header(
+                        transaction_id TEXT PRIMARY KEY, datetime TEXT NOT NULL, member_id TEXT,
+                        customer_id TEXT, total_amount REAL NOT NULL, payment_method TEXT NOT NULL)
+                    """);
+            stmt.executeUpdate("CREATE TABLE customer(customer_id TEXT PRIMARY KEY)");
+            for (int i = 1; i <= rows; i++) {
+                String member = i % 2 == 1 ? "'MB001'" : "NULL";
+                stmt.executeUpdate(String.format(
+                        "INSERT INTO transaction_header VALUES ('T%04d', '2024-01-01T10:00', %s, 'CU1', 10.0, 'CASH')",
+                        i, member));
+            }
+        }
+        conn.commit();
+    }
+
+    private int count(String sql) throws SQLException {
+        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+}
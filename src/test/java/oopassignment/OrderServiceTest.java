@@ -34,14 +34,16 @@ public class OrderServiceTest {
     private PricingService pricingService;
     private MemberService memberService;
     private MemberRepository memberRepository;
+    private StockRepository stockRepository;
+    private TransactionRepository transactionRepository;
 
     @Before
     public void setUp() {
         ProductRepository productRepository = new InMemoryProductRepository();
-        StockRepository stockRepository = new InMemoryStockRepository();
+        stockRepository = new InMemoryStockRepository();
         InventoryService inventoryService = new InventoryService(stockRepository);
         pricingService = new PricingService();
-        TransactionRepository transactionRepository = new InMemoryTransactionRepository();
+        transactionRepository = new InMemoryTransactionRepository();
         memberRepository = new InMemoryMemberRepository();
         memberService = new MemberService(memberRepository);
         orderService = new OrderService(productRepository, inventoryService, pricingService, transactionRepository, memberRepository);
@@ -157,4 +159,30 @@ public class OrderServiceTest {
         double expectedBalance = 200.0 - result.getTotal();
         assertEquals("Wallet should handle multiple items", expectedBalance, updated.getCreditBalance(), 0.01);
     }
+
+    @Test
+    public void shortLineReleasesEarlierLinesAndSavesNothing() {
+        MemberRecord member = memberService.registerMember("Race User", "970303-03-1111", 500.0);
+        OrderRequest request = new OrderRequest(member.getMemberId(), List.of(
+                new OrderItemRequest("P001", "M", 2),
+                new OrderItemRequest("P002", "42", 1000)), "WALLET");
+
+        assertThrows(InsufficientStockException.class, () -> orderService.placeOrder(request));
+
+        assertEquals("First line is put back", 10, stockRepository.getQuantity("P001", "M"));
+        assertTrue("No sale is recorded", transactionRepository.findAllHeaders().isEmpty());
+        assertEquals("Wallet is not charged", 500.0,
+                memberService.findById(member.getMemberId()).orElseThrow().getCreditBalance(), 0.0);
+    }
+
+    @Test
+    public void failedPaymentReleasesReservedStock() {
+        MemberRecord member = memberService.registerMember("Short User", "980404-04-2222", 5.0);
+        OrderRequest request = new OrderRequest(member.getMemberId(),
+                List.of(new OrderItemRequest("P001", "L", 3)), "WALLET");
+
+        assertThrows(InvalidInputException.class, () -> orderService.placeOrder(request));
+
+        assertEquals(8, stockRepository.getQuantity("P001", "L"));
+    }
 }
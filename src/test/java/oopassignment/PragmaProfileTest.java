@@ -0,0 +1,77 @@
+package oopassignment;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import oopassignment.config.AppConfig;
+import oopassignment.config.Database;
+import oopassignment.config.PragmaProfile;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PragmaProfileTest {
+
+    @Test
+    public void presetsResolveByName() {
+        assertSame(PragmaProfile.DURABLE, PragmaProfile.forName("durable"));
+        assertSame(PragmaProfile.THROUGHPUT, PragmaProfile.forName(" Throughput "));
+        assertSame(PragmaProfile.REPORT_NODE, PragmaProfile.forName("REPORT-NODE"));
+    }
+
+    @Test
+    public void unknownOrNullNameResolvesToNull() {
+        assertNull(PragmaProfile.forName("turbo"));
+        assertNull(PragmaProfile.forName(null));
+    }
+
+    @Test
+    public void presetsAllUseWal() {
+        assertEquals("WAL", PragmaProfile.DURABLE.getJournalMode());
+        assertEquals("WAL", PragmaProfile.THROUGHPUT.getJournalMode());
+        assertEquals("WAL", PragmaProfile.REPORT_NODE.getJournalMode());
+        assertEquals("FULL", PragmaProfile.DURABLE.getSynchronous());
+        assertEquals("NORMAL", PragmaProfile.THROUGHPUT.getSynchronous());
+    }
+
+    @Test
+    public void defaultProfileIsDurable() {
+        assertEquals("durable", AppConfig.DB_PRAGMA_PROFILE);
+        assertSame(PragmaProfile.DURABLE, Database.getPragmaProfile());
+    }
+
+    @Test
+    public void applySetsPragmasOnConnection() throws Exception {
+        if (!Database.isAvailable()) return;
+
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite::memory:")) {
+            PragmaProfile.REPORT_NODE.apply(conn);
+            try (Statement stmt = conn.createStatement()) {
+                assertEquals(1, queryInt(stmt, "PRAGMA synchronous")); // NORMAL
+                assertEquals(-64_000, queryInt(stmt, "PRAGMA cache_size"));
+                assertEquals(2, queryInt(stmt, "PRAGMA temp_store")); // MEMORY
+                assertEquals(15_000, queryInt(stmt, "PRAGMA busy_timeout"));
+            }
+        }
+    }
+
+    @Test
+    public void pooledConnectionsRunInWalMode() throws Exception {
+        if (!Database.isAvailable()) return;
+
+        try (Connection conn = Database.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA journal_mode")) {
+            assertTrue(rs.next());
+            assertEquals("wal", rs.getString(1).toLowerCase());
+        }
+    }
+
+    private int queryInt(Statement stmt, String sql) throws Exception {
+        try (ResultSet rs = stmt.executeQuery(sql)) {
+            assertTrue(rs.next());
+            return rs.getInt(1);
+        }
+    }
+}
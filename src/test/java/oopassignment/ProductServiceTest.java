@@ -2,6 +2,7 @@ package oopassignment;
 
 import java.util.List;
 import oopassignment.domain.product.ProductRecord;
+import oopassignment.domain.product.ProductStock;
 import oopassignment.exception.InsufficientStockException;
 import oopassignment.exception.InvalidInputException;
 import oopassignment.repository.ProductRepository;
@@ -123,4 +124,19 @@ public class ProductServiceTest {
                 InvalidInputException.class,
                 () -> productService.addProduct("", "clothes", 10.0));
     }
+
+    @Test
+    public void findAllWithStockJoinsEveryProduct() {
+        ProductRecord added = productService.addProduct("Cap", "clothes", 25.0);
+        List<ProductStock> listing = productService.findAllWithStock();
+
+        assertEquals(productService.findAll().size(), listing.size());
+        ProductStock p001 = listing.stream()
+                .filter(p -> p.getProduct().getProductId().equals("P001")).findFirst().orElseThrow();
+        assertEquals(2, p001.getStock().size());
+        assertEquals(18, p001.getTotalQuantity());
+        ProductStock cap = listing.stream()
+                .filter(p -> p.getProduct().getProductId().equals(added.getProductId())).findFirst().orElseThrow();
+        assertTrue("Unstocked product is listed with no rows", cap.getStock().isEmpty());
+    }
 }
@@ -1,11 +1,18 @@
 package oopassignment;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import oopassignment.domain.order.OrderItemRequest;
 import oopassignment.domain.order.OrderRequest;
+import oopassignment.domain.order.TransactionHeader;
+import oopassignment.domain.order.TransactionItem;
 import oopassignment.domain.report.MemberPurchase;
+import oopassignment.domain.report.MemberPurchasePage;
+import oopassignment.domain.report.SalesReport;
 import oopassignment.domain.report.SalesSummary;
+import oopassignment.exception.PersistenceException;
 import oopassignment.repository.MemberRepository;
 import oopassignment.repository.ProductRepository;
 import oopassignment.repository.StockRepository;
@@ -14,11 +21,13 @@ import oopassignment.repository.impl.InMemoryMemberRepository;
 import oopassignment.repository.impl.InMemoryProductRepository;
 import oopassignment.repository.impl.InMemoryStockRepository;
 import oopassignment.repository.impl.InMemoryTransactionRepository;
+import oopassignment.repository.impl.NotifyingTransactionRepository;
 import oopassignment.service.InventoryService;
 import oopassignment.service.MemberService;
 import oopassignment.service.OrderService;
 import oopassignment.service.PricingService;
 import oopassignment.service.ReportService;
+import oopassignment.service.SalesColumnStore;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -153,4 +162,192 @@ public class ReportServiceTest {
         assertTrue("Should have amount", first.getAmount() > 0);
         assertNotNull("Should have payment method", first.getPaymentMethod());
     }
+
+    @Test
+    public void salesReportCombinesRowsAndSummary() {
+        orderService.placeOrder(new OrderRequest(null,
+                List.of(new OrderItemRequest("P001", "M", 2)), "CASH"));
+        orderService.placeOrder(new OrderRequest(null,
+                List.of(new OrderItemRequest("P002", "42", 1)), "CARD"));
+
+        SalesReport report = reportService.getSalesReport(LocalDate.now(), LocalDate.now());
+        assertEquals(2, report.getTransactions().size());
+        assertEquals(2, report.getSummary().getTransactionCount());
+        assertEquals(19.90 * 2 + 120.00, report.getSummary().getTotalAmount(), 0.01);
+
+        SalesReport yesterday = reportService.getSalesReport(LocalDate.now().minusDays(1), LocalDate.now().minusDays(1));
+        assertTrue(yesterday.getTransactions().isEmpty());
+        assertEquals(0, yesterday.getSummary().getTransactionCount());
+    }
+
+    @Test
+    public void memberPurchasePagesWalkWholeHistory() {
+        for (int i = 0; i < 3; i++) {
+            orderService.placeOrder(new OrderRequest("MB005",
+                    List.of(new OrderItemRequest("P001", "M", 1)), "CASH"));
+        }
+
+        MemberPurchasePage first = reportService.getMemberPurchasePage("MB005", 2, null);
+        assertEquals(2, first.getPurchases().size());
+        assertTrue(first.hasMore());
+        MemberPurchasePage second = reportService.getMemberPurchasePage("MB005", 2, first.getNextCursor());
+        assertEquals(1, second.getPurchases().size());
+        assertFalse(second.hasMore());
+        assertEquals(3, reportService.getMemberPurchaseHistory("MB005").size());
+    }
+
+    @Test
+    public void cachedReportIsServedUntilSaleLandsInItsRange() {
+        NotifyingTransactionRepository repository = new NotifyingTransactionRepository(new InMemoryTransactionRepository());
+        ReportService cached = new ReportService(repository, 8, 60_000);
+        repository.addListener(cached);
+        LocalDate day = LocalDate.of(2024, 3, 10);
+        repository.saveTransaction(header("TC001", day.atTime(10, 0), 50.0), List.of());
+
+        assertEquals(1, cached.getTotalSales(day, day).getTransactionCount());
+        assertEquals(1, cached.getSalesReport(day, day).getTransactions().size());
+        assertEquals(1, cached.getTotalSales(day, day).getTransactionCount());
+        assertEquals(1, cached.getCacheStats().getHits());
+        assertEquals(2, cached.getCacheStats().getMisses());
+        assertTrue("Cached report should be counted", cached.getCacheStats().getEstimatedBytes() > 0);
+
+        long version = cached.getCacheVersion();
+        repository.saveTransaction(header("TC002", day.plusDays(5).atTime(9, 0), 20.0), List.of());
+        assertEquals("Out-of-range sale leaves the cache alone", version, cached.getCacheVersion());
+        assertEquals(2, cached.getCacheStats().getSize());
+
+        repository.saveTransaction(header("TC003", day.atTime(15, 0), 30.0), List.of());
+        assertTrue(cached.getCacheVersion() > version);
+        assertEquals(2, cached.getTotalSales(day, day).getTransactionCount());
+        assertEquals(80.0, cached.getTotalSales(day, day).getTotalAmount(), 0.001);
+        assertEquals(2, cached.getCacheStats().getInvalidations());
+    }
+
+    @Test
+    public void amendmentDropsEveryCachedReport() {
+        NotifyingTransactionRepository repository = new NotifyingTransactionRepository(new InMemoryTransactionRepository());
+        ReportService cached = new ReportService(repository, 8, 60_000);
+        repository.addListener(cached);
+        LocalDate day = LocalDate.of(2024, 3, 10);
+        repository.saveTransaction(header("TC010", day.atTime(10, 0), 50.0), List.of());
+        cached.getTotalSales(day, day);
+        cached.getTransactionsInRange(null, null);
+
+        repository.amendTransaction(header("TC010", day.atTime(10, 0), 45.0), List.of());
+        assertEquals(0, cached.getCacheStats().getSize());
+        assertEquals(45.0, cached.getTotalSales(day, day).getTotalAmount(), 0.001);
+    }
+
+    @Test
+    public void uncachedServiceReportsEmptyStats() {
+        assertEquals(0, reportService.getCacheStats().getMaxSize());
+        reportService.getTotalSales(LocalDate.now(), LocalDate.now());
+        assertEquals(0, reportService.getCacheStats().getHits());
+    }
+
+    @Test
+    public void columnarReportsMatchRepositoryReports() {
+        NotifyingTransactionRepository repository = new NotifyingTransactionRepository(new InMemoryTransactionRepository());
+        LocalDate day = LocalDate.of(2024, 3, 10);
+        repository.saveTransaction(header("TC020", day.atTime(10, 0), 50.0),
+                List.of(new TransactionItem("TC020", 1, "P001", "M", 2, 25.0)));
+        ReportService columnar = new ReportService(repository, 0, 0, SalesColumnStore.load(repository));
+        ReportService plain = new ReportService(repository);
+        repository.addListener(columnar);
+
+        repository.saveTransaction(new TransactionHeader("TC021", day.atTime(11, 0), "MB001", "MEMBER", 19.5, "CARD"),
+                List.of(new TransactionItem("TC021", 1, "P002", "42", 1, 19.5)));
+        repository.amendTransaction(header("TC020", day.atTime(10, 0), 25.0),
+                List.of(new TransactionItem("TC020", 1, "P001", "M", 1, 25.0)));
+
+        assertEquals(2, columnar.getTotalSales(day, day).getTransactionCount());
+        assertEquals(plain.getTotalSales(day, day).getTotalAmount(), columnar.getTotalSales(day, day).getTotalAmount(), 0.001);
+        assertEquals(plain.getSalesByPaymentMethod(day, day).keySet(), columnar.getSalesByPaymentMethod(day, day).keySet());
+        assertEquals(1, columnar.getSalesByCustomerType(day, day).get("MEMBER").getTransactionCount());
+        assertEquals(plain.getUnitsSold(day, day), columnar.getUnitsSold(day, day));
+        assertEquals(Integer.valueOf(1), columnar.getUnitsSold(day, day).get("P001").get("M"));
+        assertEquals(1, columnar.getMemberPurchaseHistory("MB001").size());
+        assertEquals(plain.getSalesReport(day, day).getTransactions().size(), columnar.getSalesReport(day, day).getTransactions().size());
+        assertEquals("TC020", columnar.getTransactionsInRange(day, day).get(0).getTransactionId());
+    }
+
+    @Test
+    public void totalsAndMemberHistoryStayOnRepositoryWithColumns() {
+        TransactionRepository repository = new InMemoryTransactionRepository();
+        LocalDate day = LocalDate.of(2024, 3, 11);
+        repository.saveTransaction(new TransactionHeader("TC030", day.atTime(9, 0), "MB001", "MEMBER", 12.0, "CARD"),
+                List.of());
+        // An empty store shows which reads go through the rollup and member index rather than the columns
+        ReportService columnar = new ReportService(repository, 0, 0, SalesColumnStore.load(new InMemoryTransactionRepository()));
+
+        assertEquals(1, columnar.getTotalSales(day, day).getTransactionCount());
+        assertEquals(12.0, columnar.getTotalSales(null, null).getTotalAmount(), 0.001);
+        assertEquals(1, columnar.getMemberPurchaseHistory("MB001").size());
+        assertTrue(columnar.getSalesByPaymentMethod(day, day).isEmpty());
+    }
+
+    @Test
+    public void reportsReadRepositoryUntilColumnsLoadAndRefreshPicksUpOtherWrites() {
+        InMemoryTransactionRepository shared = new InMemoryTransactionRepository();
+        NotifyingTransactionRepository repository = new NotifyingTransactionRepository(shared);
+        LocalDate day = LocalDate.of(2024, 3, 14);
+        repository.saveTransaction(header("TC060", day.atTime(9, 0), 10.0), List.of());
+        ReportService reports = new ReportService(repository, 8, 60_000, new SalesColumnStore());
+        repository.addListener(reports);
+
+        assertEquals("Falls back before the first load", 1, reports.getTransactionsInRange(day, day).size());
+        reports.refreshColumns();
+        // Written straight to the store, as another terminal would, so no listener hears about it
+        shared.saveTransaction(header("TC061", day.atTime(10, 0), 5.0), List.of());
+        assertEquals(1, reports.getSalesByPaymentMethod(day, day).get("CASH").getTransactionCount());
+
+        reports.refreshColumns();
+        assertEquals(2, reports.getSalesByPaymentMethod(day, day).get("CASH").getTransactionCount());
+        assertEquals(15.0, reports.getSalesByPaymentMethod(day, day).get("CASH").getTotalAmount(), 0.0);
+    }
+
+    @Test
+    public void failedSaveDoesNotReachReports() {
+        NotifyingTransactionRepository repository = new NotifyingTransactionRepository(new InMemoryTransactionRepository() {
+            @Override
+            public void saveTransaction(TransactionHeader header, List<TransactionItem> items) {
+                throw new PersistenceException("disk full", null);
+            }
+        });
+        LocalDate day = LocalDate.of(2024, 3, 12);
+        SalesColumnStore columns = new SalesColumnStore();
+        ReportService reports = new ReportService(repository, 8, 60_000, columns);
+        repository.addListener(reports);
+        reports.getSalesByPaymentMethod(day, day);
+
+        try {
+            repository.saveTransaction(header("TC040", day.atTime(9, 0), 10.0), List.of());
+            fail("Save should have failed");
+        } catch (PersistenceException expected) {
+            // listeners must not see it
+        }
+        assertEquals(0, columns.getRowCount());
+        assertEquals(0, reports.getCacheVersion());
+    }
+
+    @Test
+    public void cachedGroupBysAreReadOnly() {
+        NotifyingTransactionRepository repository = new NotifyingTransactionRepository(new InMemoryTransactionRepository());
+        LocalDate day = LocalDate.of(2024, 3, 13);
+        repository.saveTransaction(header("TC050", day.atTime(9, 0), 20.0),
+                List.of(new TransactionItem("TC050", 1, "P001", "M", 2, 10.0)));
+        for (ReportService reports : List.of(new ReportService(repository, 8, 60_000),
+                new ReportService(repository, 8, 60_000, SalesColumnStore.load(repository)))) {
+            Map<String, Map<String, Integer>> units = reports.getUnitsSold(day, day);
+            assertThrows(UnsupportedOperationException.class, () -> units.put("P999", Map.of()));
+            assertThrows(UnsupportedOperationException.class, () -> units.get("P001").put("M", 99));
+            assertThrows(UnsupportedOperationException.class, () -> reports.getSalesByPaymentMethod(day, day).clear());
+            assertThrows(UnsupportedOperationException.class, () -> reports.getSalesByCustomerType(day, day).clear());
+            assertEquals(Integer.valueOf(2), reports.getUnitsSold(day, day).get("P001").get("M"));
+        }
+    }
+
+    private static TransactionHeader header(String id, LocalDateTime at, double amount) {
+        return new TransactionHeader(id, at, null, "GUEST", amount, "CASH");
+    }
 }
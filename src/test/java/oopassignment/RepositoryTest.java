@@ -3,6 +3,7 @@ package oopassignment;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import oopassignment.domain.auth.EmployeeRecord;
 import oopassignment.domain.auth.EmploymentStatus;
 import oopassignment.domain.auth.Role;
@@ -165,6 +166,89 @@ public class RepositoryTest {
         assertNotNull("Find all should not return null", all);
     }
 
+    @Test
+    public void memberRepositoryIcIndexFollowsUpdates() {
+        MemberRepository repo = new InMemoryMemberRepository();
+        MemberRecord member = new MemberRecord("MB994", "Index Test", "444444444444",
+                0, LocalDate.now(), MemberStatus.ACTIVE);
+        repo.save(member);
+
+        member.setIcNumber("333333333333");
+        assertFalse("Stale index entry is not trusted", repo.findByIc("444444444444").isPresent());
+        repo.update(member);
+
+        assertFalse(repo.findByIc("444444444444").isPresent());
+        assertEquals("MB994", repo.findByIc("333333333333").orElseThrow().getMemberId());
+        assertFalse(repo.findByIc(null).isPresent());
+    }
+
+    @Test
+    public void memberRepositorySearchRanksAndCapsMatches() {
+        MemberRepository repo = new InMemoryMemberRepository();
+        repo.save(new MemberRecord("MB992", "Mary Johnson", "121212121212", 0, LocalDate.now(), MemberStatus.ACTIVE));
+        repo.save(new MemberRecord("MB991", "John Smith", "131313131313", 0, LocalDate.now(), MemberStatus.ACTIVE));
+        repo.save(new MemberRecord("MB990", "Ajohnny Tan", "141414141414", 0, LocalDate.now(), MemberStatus.ACTIVE));
+
+        List<MemberRecord> results = repo.searchByName("JOHN", 10);
+        assertEquals(List.of("MB991", "MB992", "MB990"),
+                results.stream().map(MemberRecord::getMemberId).toList());
+        assertEquals(List.of("MB991"), repo.searchByName("john", 1).stream().map(MemberRecord::getMemberId).toList());
+        assertEquals("Short keywords are scanned", 3, repo.searchByName("jo", 10).size());
+    }
+
+    @Test
+    public void memberRepositorySearchFollowsRenames() {
+        MemberRepository repo = new InMemoryMemberRepository();
+        MemberRecord member = new MemberRecord("MB989", "Oldname Person", "151515151515",
+                0, LocalDate.now(), MemberStatus.ACTIVE);
+        repo.save(member);
+        member.setName("Newname Person");
+        repo.update(member);
+
+        assertTrue(repo.searchByName("oldname", 10).isEmpty());
+        assertEquals("MB989", repo.searchByName("newname", 10).get(0).getMemberId());
+    }
+
+    @Test
+    public void memberRepositoryFindAllIsSharedReadOnlySnapshot() {
+        MemberRepository repo = new InMemoryMemberRepository();
+        List<MemberRecord> first = repo.findAll();
+        assertSame("Unchanged store reuses the view", first, repo.findAll());
+        assertThrows(UnsupportedOperationException.class, () -> first.add(null));
+
+        repo.save(new MemberRecord("MB993", "Snapshot Test", "222222222222",
+                0, LocalDate.now(), MemberStatus.ACTIVE));
+        List<MemberRecord> second = repo.findAll();
+        assertEquals(first.size() + 1, second.size());
+        assertEquals("Registration order is kept", "MB993", second.get(second.size() - 1).getMemberId());
+    }
+
+    @Test
+    public void memberRepositoryConcurrentSavesAreAllIndexed() throws Exception {
+        MemberRepository repo = new InMemoryMemberRepository();
+        int before = repo.findAll().size();
+        List<Thread> terminals = new java.util.ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int base = t * 100;
+            terminals.add(new Thread(() -> {
+                for (int i = 0; i < 100; i++) {
+                    String n = String.format("%03d", base + i);
+                    repo.save(new MemberRecord("MC" + n, "Member " + n, "777777777" + n,
+                            0, LocalDate.now(), MemberStatus.ACTIVE));
+                }
+            }));
+        }
+        terminals.forEach(Thread::start);
+        for (Thread t : terminals) {
+            t.join();
+        }
+        assertEquals(before + 400, repo.findAll().size());
+        for (int i = 0; i < 400; i++) {
+            String n = String.format("%03d", i);
+            assertEquals("MC" + n, repo.findByIc("777777777" + n).orElseThrow().getMemberId());
+        }
+    }
+
     // Product Repository Tests
     @Test
     public void productRepositorySaveAndFind() {
@@ -226,6 +310,24 @@ public class RepositoryTest {
         assertEquals("Should return set quantity", 20, qty);
     }
 
+    @Test
+    public void stockRepositoryGroupsInFirstStockedOrder() {
+        StockRepository repo = new InMemoryStockRepository();
+
+        for (int i = 50; i > 0; i--) {
+            repo.setQuantity("PZ" + i, "S", i);
+            repo.setQuantity("PZ" + i, "XS", i);
+        }
+
+        List<String> ids = List.copyOf(repo.findAllGroupedByProduct().keySet());
+        assertEquals(List.of("P001", "P002", "PZ50", "PZ49"), ids.subList(0, 4));
+        assertEquals("PZ1", ids.get(ids.size() - 1));
+        List<StockItem> sizes = repo.findAllGroupedByProduct().get("P001");
+        assertEquals("M", sizes.get(0).getSize());
+        assertEquals("L", sizes.get(1).getSize());
+        assertEquals("S", repo.findByProductId("PZ7").get(0).getSize());
+    }
+
     @Test
     public void stockRepositoryIncreaseQuantity() {
         StockRepository repo = new InMemoryStockRepository();
@@ -248,6 +350,58 @@ public class RepositoryTest {
         assertEquals("Should decrease quantity", 12, qty);
     }
 
+    @Test
+    public void stockRepositoryTryDecreaseReportsShortage() {
+        StockRepository repo = new InMemoryStockRepository();
+
+        repo.setQuantity("P992", "M", 3);
+        assertTrue(repo.tryDecreaseQuantity("P992", "M", 3));
+        assertFalse(repo.tryDecreaseQuantity("P992", "M", 1));
+        assertEquals(0, repo.getQuantity("P992", "M"));
+    }
+
+    @Test
+    public void stockRepositoryTotalTracksEveryChange() {
+        StockRepository repo = new InMemoryStockRepository();
+
+        repo.setQuantity("p989", "s", 5);
+        repo.increaseQuantity("P989", "M", 4);
+        repo.setQuantity("P989", "S", 2);
+        assertTrue(repo.tryDecreaseQuantity("P989", "M", 1));
+        assertFalse(repo.tryDecreaseQuantity("P989", "L", 1));
+
+        assertEquals(2, repo.getQuantity("P989", "S"));
+        assertEquals(3, repo.getQuantity("p989", "m"));
+        assertEquals(5, repo.getTotalQuantity("P989"));
+        assertEquals(0, repo.getTotalQuantity("PXXX"));
+    }
+
+    @Test
+    public void stockRepositoryConcurrentChangesKeepCountsExact() throws Exception {
+        StockRepository repo = new InMemoryStockRepository();
+        repo.setQuantity("P988", "M", 100);
+        java.util.concurrent.atomic.AtomicInteger sold = new java.util.concurrent.atomic.AtomicInteger();
+        List<Thread> terminals = new java.util.ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            terminals.add(new Thread(() -> {
+                for (int i = 0; i < 50; i++) {
+                    if (repo.tryDecreaseQuantity("P988", "M", 1)) {
+                        sold.incrementAndGet();
+                    }
+                    repo.increaseQuantity("P988", "L", 1);
+                }
+            }));
+        }
+        terminals.forEach(Thread::start);
+        for (Thread t : terminals) {
+            t.join();
+        }
+        assertEquals("Never oversold", 100, sold.get());
+        assertEquals(0, repo.getQuantity("P988", "M"));
+        assertEquals(400, repo.getQuantity("P988", "L"));
+        assertEquals(400, repo.getTotalQuantity("P988"));
+    }
+
     @Test
     public void stockRepositoryGetTotalQuantity() {
         StockRepository repo = new InMemoryStockRepository();
@@ -283,6 +437,23 @@ public class RepositoryTest {
         assertEquals("Should have 3 sizes", 3, items.size());
     }
 
+    @Test
+    public void stockRepositoryBulkReadsGroupByProduct() {
+        StockRepository repo = new InMemoryStockRepository();
+
+        repo.setQuantity("P990", "S", 5);
+        repo.setQuantity("P990", "M", 10);
+        repo.setQuantity("P991", "42", 3);
+
+        var grouped = repo.findAllGroupedByProduct();
+        assertEquals(2, grouped.get("P990").size());
+        assertEquals(1, grouped.get("P991").size());
+
+        var selected = repo.findByProductIds(List.of("p990", "PXXX"));
+        assertEquals("Only requested products with stock", Set.of("P990"), selected.keySet());
+        assertEquals(2, selected.get("P990").size());
+    }
+
     @Test
     public void stockRepositoryGetQuantityForNonExistent() {
         StockRepository repo = new InMemoryStockRepository();
@@ -0,0 +1,192 @@
+package oopassignment;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import oopassignment.domain.order.TransactionHeader;
+import oopassignment.domain.order.TransactionItem;
+import oopassignment.domain.report.SalesSummary;
+import oopassignment.repository.TransactionRepository;
+import oopassignment.repository.impl.InMemoryTransactionRepository;
+import oopassignment.service.SalesColumnStore;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SalesColumnStoreTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 5, 1);
+
+    @Test
+    public void loadMirrorsRepositoryHeadersAndLines() {
+        TransactionRepository repository = new InMemoryTransactionRepository();
+        repository.saveTransaction(header("TS001", DAY.atTime(9, 0), null, "CASH", 40.0),
+                List.of(new TransactionItem("TS001", 1, "p001", "m", 2, 20.0)));
+        repository.saveTransaction(header("TS002", DAY.plusDays(1).atTime(9, 0), "MB001", "CARD", 15.5),
+                List.of(new TransactionItem("TS002", 1, "P001", "M", 1, 15.5)));
+
+        SalesColumnStore store = SalesColumnStore.load(repository);
+
+        assertEquals(2, store.getRowCount());
+        SalesSummary all = store.summarize(null, null);
+        assertEquals(2, all.getTransactionCount());
+        assertEquals(55.5, all.getTotalAmount(), 0.001);
+        assertEquals(1, store.summarize(DAY, DAY).getTransactionCount());
+        assertEquals("Product and size codes fold case", Map.of("P001", Map.of("M", 3)), store.unitsSold(null, null));
+    }
+
+    @Test
+    public void groupBysAreOrderedAndFilteredByDay() {
+        SalesColumnStore store = new SalesColumnStore();
+        store.append(header("TS010", DAY.atTime(10, 0), null, "CASH", 10.0), List.of());
+        store.append(header("TS011", DAY.atTime(11, 0), "MB001", "CARD", 20.0), List.of());
+        store.append(header("TS012", DAY.atTime(12, 0), "MB002", "CASH", 5.25), List.of());
+        store.append(header("TS013", DAY.plusDays(3).atTime(12, 0), null, "WALLET", 99.0), List.of());
+
+        Map<String, SalesSummary> byPayment = store.summarizeByPaymentMethod(DAY, DAY);
+        assertEquals(List.of("CARD", "CASH"), List.copyOf(byPayment.keySet()));
+        assertEquals(2, byPayment.get("CASH").getTransactionCount());
+        assertEquals(15.25, byPayment.get("CASH").getTotalAmount(), 0.001);
+
+        Map<String, SalesSummary> byType = store.summarizeByCustomerType(null, DAY);
+        assertEquals(1, byType.get("GUEST").getTransactionCount());
+        assertEquals(2, byType.get("MEMBER").getTransactionCount());
+    }
+
+    @Test
+    public void amendReplacesTheStoredRow() {
+        SalesColumnStore store = new SalesColumnStore();
+        store.append(header("TS020", DAY.atTime(10, 0), null, "CASH", 30.0),
+                List.of(new TransactionItem("TS020", 1, "P002", "42", 3, 10.0)));
+        store.amend(header("TS020", DAY.plusDays(1).atTime(10, 0), null, "CARD", 20.0),
+                List.of(new TransactionItem("TS020", 1, "P002", "42", 2, 10.0)));
+
+        assertEquals(1, store.getRowCount());
+        assertEquals(0, store.summarize(DAY, DAY).getTransactionCount());
+        assertEquals(20.0, store.summarize(null, null).getTotalAmount(), 0.001);
+        assertEquals(Set.of("CARD"), store.summarizeByPaymentMethod(null, null).keySet());
+        assertEquals(Map.of("P002", Map.of("42", 2)), store.unitsSold(null, null));
+    }
+
+    @Test
+    public void columnsGrowPastInitialCapacity() {
+        SalesColumnStore store = new SalesColumnStore();
+        for (int i = 0; i < 3000; i++) {
+            String id = "TG" + i;
+            store.append(header(id, DAY.atTime(8, 0).plusMinutes(i), null, "CASH", 1.0),
+                    List.of(new TransactionItem(id, 1, "P001", "M", 1, 1.0)));
+        }
+
+        assertEquals(3000, store.summarize(null, null).getTransactionCount());
+        assertEquals(3000.0, store.summarize(null, null).getTotalAmount(), 0.001);
+        assertEquals(Integer.valueOf(3000), store.unitsSold(null, null).get("P001").get("M"));
+    }
+
+    @Test
+    public void partitionedScansMatchSequentialScans() {
+        SalesColumnStore sequential = new SalesColumnStore(Integer.MAX_VALUE, 1);
+        // Threshold and partition size differ, so a scan just over the threshold still splits into small tasks
+        SalesColumnStore partitioned = new SalesColumnStore(100, 7);
+        String[] payments = {"CASH", "CARD", "WALLET"};
+        for (int i = 0; i < 500; i++) {
+            String id = String.format("TP%04d", i);
+            // Appended newest first so listings have to be re-ordered after the merge
+            TransactionHeader header = header(id, DAY.plusDays(20 - i % 20).atTime(9, i % 60),
+                    i % 4 == 0 ? "MB00" + (i % 3) : null, payments[i % 3], 1.25 * (i % 9));
+            List<TransactionItem> lines = List.of(new TransactionItem(id, 1, "P00" + (i % 5), i % 2 == 0 ? "M" : "L", 1 + i % 3, 1.0));
+            sequential.append(header, lines);
+            partitioned.append(header, lines);
+        }
+        LocalDate from = DAY.plusDays(3);
+        LocalDate to = DAY.plusDays(12);
+
+        assertEquals(sequential.summarize(from, to).getTotalAmount(), partitioned.summarize(from, to).getTotalAmount(), 0.0);
+        assertEquals(sequential.summarize(from, to).getTransactionCount(), partitioned.summarize(from, to).getTransactionCount());
+        assertEquals(sequential.summarizeByPaymentMethod(from, to).keySet(), partitioned.summarizeByPaymentMethod(from, to).keySet());
+        assertEquals(sequential.summarizeByCustomerType(null, null).get("MEMBER").getTotalAmount(),
+                partitioned.summarizeByCustomerType(null, null).get("MEMBER").getTotalAmount(), 0.0);
+        assertEquals(sequential.unitsSold(from, to), partitioned.unitsSold(from, to));
+
+        List<String> expected = ids(sequential.headersBetween(from, to));
+        assertEquals(expected, ids(partitioned.headersBetween(from, to)));
+        assertEquals(250, expected.size());
+        assertEquals(ids(sequential.headersForMember("MB001")), ids(partitioned.headersForMember("MB001")));
+        assertTrue(partitioned.headersForMember("MB999").isEmpty());
+    }
+
+    @Test
+    public void headersAreRebuiltInTimeOrder() {
+        SalesColumnStore store = new SalesColumnStore();
+        LocalDateTime later = DAY.atTime(15, 30, 5, 123_000_000);
+        store.append(header("TS031", later, "MB001", "CARD", 12.5), List.of());
+        store.append(header("TS030", DAY.atTime(9, 0), "MB001", "CASH", 7.0), List.of());
+
+        List<TransactionHeader> history = store.headersForMember("MB001");
+        assertEquals(List.of("TS030", "TS031"), ids(history));
+        assertEquals(later, history.get(1).getDateTime());
+        assertEquals("MEMBER", history.get(1).getCustomerType());
+        assertEquals(12.5, history.get(1).getTotalAmount(), 0.0);
+    }
+
+    @Test
+    public void amountsAreKeptExactly() {
+        TransactionRepository repository = new InMemoryTransactionRepository();
+        repository.saveTransaction(header("TS040", DAY.atTime(9, 0), null, "CASH", 10.004), List.of());
+        repository.saveTransaction(header("TS041", DAY.atTime(9, 5), null, "CASH", 0.333), List.of());
+        SalesColumnStore store = SalesColumnStore.load(repository);
+
+        assertEquals(repository.summarizeSales(null, null).getTotalAmount(), store.summarize(null, null).getTotalAmount(), 0.0);
+        assertEquals(10.337, store.summarizeByPaymentMethod(DAY, DAY).get("CASH").getTotalAmount(), 1e-9);
+        assertEquals(0.333, store.headersBetween(DAY, DAY).get(1).getTotalAmount(), 0.0);
+    }
+
+    @Test
+    public void reloadReplaysWritesThatArriveWhileReading() {
+        SalesColumnStore[] target = new SalesColumnStore[1];
+        InMemoryTransactionRepository repository = new InMemoryTransactionRepository() {
+            @Override
+            public Stream<TransactionHeader> streamHeaders() {
+                List<TransactionHeader> snapshot = findAllHeaders();
+                // A checkout that commits and notifies mid-reload: the snapshot already holds TS051, TS052 is new
+                saveTransaction(header("TS052", DAY.atTime(11, 0), null, "CARD", 2.0), List.of());
+                target[0].append(header("TS052", DAY.atTime(11, 0), null, "CARD", 2.0), List.of());
+                target[0].amend(header("TS051", DAY.atTime(10, 0), null, "CASH", 4.0), List.of());
+                return snapshot.stream();
+            }
+        };
+        repository.saveTransaction(header("TS050", DAY.atTime(9, 0), null, "CASH", 1.0), List.of());
+        repository.saveTransaction(header("TS051", DAY.atTime(10, 0), null, "CASH", 3.0), List.of());
+        SalesColumnStore store = new SalesColumnStore();
+        target[0] = store;
+        assertFalse(store.isLoaded());
+
+        store.reload(repository);
+
+        assertTrue(store.isLoaded());
+        assertEquals(3, store.getRowCount());
+        assertEquals(7.0, store.summarize(null, null).getTotalAmount(), 0.0);
+        assertEquals(List.of("TS050", "TS051", "TS052"), ids(store.headersBetween(null, null)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void thresholdMustBePositive() {
+        new SalesColumnStore(0, 10);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void partitionSizeMustBePositive() {
+        new SalesColumnStore(10, 0);
+    }
+
+    private static List<String> ids(List<TransactionHeader> headers) {
+        return headers.stream().map(TransactionHeader::getTransactionId).collect(Collectors.toList());
+    }
+
+    private static TransactionHeader header(String id, LocalDateTime at, String memberId, String payment, double amount) {
+        return new TransactionHeader(id, at, memberId, memberId == null ? "GUEST" : "MEMBER", amount, payment);
+    }
+}
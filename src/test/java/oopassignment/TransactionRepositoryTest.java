@@ -3,8 +3,11 @@ package oopassignment;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 import oopassignment.domain.order.TransactionHeader;
+import oopassignment.domain.order.TransactionHeaderPage;
 import oopassignment.domain.order.TransactionItem;
+import oopassignment.domain.report.SalesSummary;
 import oopassignment.repository.TransactionRepository;
 import oopassignment.repository.impl.InMemoryTransactionRepository;
 import org.junit.Before;
@@ -35,6 +38,80 @@ public class TransactionRepositoryTest {
         assertTrue("Should find saved transaction", found);
     }
 
+    @Test
+    public void streamHeadersSeesSavedTransactions() {
+        repo.saveTransaction(new TransactionHeader("T990", LocalDateTime.now(), null, "WALK-IN", 10.0, "CASH"),
+                List.of());
+        repo.saveTransaction(new TransactionHeader("T991", LocalDateTime.now(), null, "WALK-IN", 20.0, "CASH"),
+                List.of());
+
+        try (java.util.stream.Stream<TransactionHeader> headers = repo.streamHeaders()) {
+            assertEquals(30.0, headers.mapToDouble(TransactionHeader::getTotalAmount).sum(), 0.001);
+        }
+    }
+
+    @Test
+    public void summarizeSalesCountsOnlyTheRange() {
+        LocalDateTime day = LocalDateTime.of(2020, 6, 1, 12, 0);
+        repo.saveTransaction(new TransactionHeader("T980", day, null, "WALK-IN", 10.0, "CASH"), List.of());
+        repo.saveTransaction(new TransactionHeader("T981", day.plusDays(1), null, "WALK-IN", 20.0, "CASH"), List.of());
+        repo.saveTransaction(new TransactionHeader("T982", day.plusDays(5), null, "WALK-IN", 40.0, "CASH"), List.of());
+
+        SalesSummary summary = repo.summarizeSales(day.toLocalDate(), day.toLocalDate().plusDays(1));
+        assertEquals(2, summary.getTransactionCount());
+        assertEquals(30.0, summary.getTotalAmount(), 0.001);
+        assertEquals(3, repo.summarizeSales(null, null).getTransactionCount());
+    }
+
+    @Test
+    public void findItemsByTransactionsGroupsLines() {
+        repo.saveTransaction(new TransactionHeader("T970", LocalDateTime.now(), "MB001", "MEMBER", 30.0, "CASH"),
+                List.of(new TransactionItem("T970", 1, "P001", "M", 1, 10.0),
+                        new TransactionItem("T970", 2, "P002", "42", 1, 20.0)));
+        repo.saveTransaction(new TransactionHeader("T971", LocalDateTime.now(), "MB001", "MEMBER", 10.0, "CASH"),
+                List.of(new TransactionItem("T971", 1, "P001", "L", 1, 10.0)));
+
+        java.util.Map<String, List<TransactionItem>> items =
+                repo.findItemsByTransactions(List.of("T970", "T971", "T000"));
+        assertEquals(2, items.get("T970").size());
+        assertEquals(1, items.get("T971").size());
+        assertFalse("Unknown ids are simply absent", items.containsKey("T000"));
+    }
+
+    @Test
+    public void findHeadersByMemberPagesNewestFirst() {
+        LocalDateTime base = LocalDateTime.of(2022, 1, 1, 10, 0);
+        for (int i = 1; i <= 5; i++) {
+            repo.saveTransaction(new TransactionHeader("T96" + i, base.plusDays(i), "MB777", "MEMBER", i, "CASH"),
+                    List.of());
+        }
+        repo.saveTransaction(new TransactionHeader("T950", base, "MB778", "MEMBER", 1.0, "CASH"), List.of());
+
+        TransactionHeaderPage first = repo.findHeadersByMember("MB777", 2, null);
+        assertEquals(List.of("T965", "T964"), ids(first));
+        assertTrue(first.hasMore());
+        TransactionHeaderPage second = repo.findHeadersByMember("MB777", 2, first.getNextCursor());
+        assertEquals(List.of("T963", "T962"), ids(second));
+        TransactionHeaderPage last = repo.findHeadersByMember("MB777", 2, second.getNextCursor());
+        assertEquals(List.of("T961"), ids(last));
+        assertFalse(last.hasMore());
+        assertTrue(repo.findHeadersByMember("MB000", 2, null).getHeaders().isEmpty());
+    }
+
+    @Test
+    public void amendMovesHeaderBetweenMembers() {
+        LocalDateTime when = LocalDateTime.of(2022, 2, 1, 10, 0);
+        repo.saveTransaction(new TransactionHeader("T955", when, "MB771", "MEMBER", 5.0, "CASH"), List.of());
+        repo.amendTransaction(new TransactionHeader("T955", when, "MB772", "MEMBER", 5.0, "CASH"), List.of());
+
+        assertTrue(repo.findHeadersByMember("MB771", 10, null).getHeaders().isEmpty());
+        assertEquals(List.of("T955"), ids(repo.findHeadersByMember("MB772", 10, null)));
+    }
+
+    private static List<String> ids(TransactionHeaderPage page) {
+        return page.getHeaders().stream().map(TransactionHeader::getTransactionId).collect(Collectors.toList());
+    }
+
     @Test
     public void findItemsByTransactionId() {
         TransactionHeader header = new TransactionHeader("T998", LocalDateTime.now(),
@@ -150,5 +227,84 @@ public class TransactionRepositoryTest {
         List<TransactionHeader> headers = repo.findAllHeaders();
         assertNotNull("findAllHeaders should not return null", headers);
     }
-}
 
+    @Test
+    public void amendTransactionReplacesHeaderAndItems() {
+        TransactionHeader original = new TransactionHeader("T995", LocalDateTime.now(),
+                null, "WALK-IN", 30.0, "CASH");
+        repo.saveTransaction(original, List.of(
+                new TransactionItem("T995", 1, "P001", "M", 1, 10.0),
+                new TransactionItem("T995", 2, "P001", "L", 2, 10.0)));
+
+        TransactionHeader amended = new TransactionHeader("T995", LocalDateTime.now(),
+                null, "WALK-IN", 120.0, "CARD");
+        repo.amendTransaction(amended, List.of(new TransactionItem("T995", 1, "P002", "42", 1, 120.0)));
+
+        long copies = repo.findAllHeaders().stream()
+                .filter(h -> "T995".equals(h.getTransactionId()))
+                .count();
+        assertEquals("Amend should not duplicate the header", 1, copies);
+        List<TransactionItem> items = repo.findItemsByTransaction("T995");
+        assertEquals(1, items.size());
+        assertEquals("P002", items.get(0).getProductId());
+    }
+
+    @Test
+    public void dateRangeIncludesWholeBoundaryDays() {
+        LocalDateTime day = LocalDateTime.of(2019, 3, 10, 0, 0);
+        repo.saveTransaction(new TransactionHeader("T970", day.minusNanos(1000), null, "WALK-IN", 1.0, "CASH"), List.of());
+        repo.saveTransaction(new TransactionHeader("T971", day, null, "WALK-IN", 2.0, "CASH"), List.of());
+        repo.saveTransaction(new TransactionHeader("T972", day.plusDays(1).minusNanos(1000), null, "WALK-IN", 4.0, "CASH"),
+                List.of());
+        repo.saveTransaction(new TransactionHeader("T973", day.plusDays(1), null, "WALK-IN", 8.0, "CASH"), List.of());
+
+        try (java.util.stream.Stream<TransactionHeader> range =
+                     repo.streamHeadersBetween(day.toLocalDate(), day.toLocalDate())) {
+            assertEquals(List.of("T971", "T972"),
+                    range.map(TransactionHeader::getTransactionId).collect(Collectors.toList()));
+        }
+        assertEquals(14.0, repo.summarizeSales(day.toLocalDate(), null).getTotalAmount(), 0.001);
+        assertEquals(7.0, repo.summarizeSales(null, day.toLocalDate()).getTotalAmount(), 0.001);
+    }
+
+    @Test
+    public void amendMovesHeaderWithinTimeOrder() {
+        LocalDateTime start = LocalDateTime.of(2019, 4, 1, 9, 0);
+        repo.saveTransaction(new TransactionHeader("T960", start, null, "WALK-IN", 1.0, "CASH"), List.of());
+        repo.saveTransaction(new TransactionHeader("T961", start.plusHours(1), null, "WALK-IN", 1.0, "CASH"), List.of());
+        List<TransactionHeader> before = repo.findAllHeaders();
+        assertSame("Unchanged store reuses the list", before, repo.findAllHeaders());
+
+        repo.amendTransaction(new TransactionHeader("T960", start.plusHours(2), null, "WALK-IN", 1.0, "CASH"),
+                List.of());
+
+        assertEquals("Oldest first", List.of("T961", "T960"),
+                repo.findAllHeaders().stream().map(TransactionHeader::getTransactionId).collect(Collectors.toList()));
+        assertEquals(2, before.size());
+    }
+
+    @Test
+    public void concurrentAppendsAreAllIndexed() throws Exception {
+        LocalDateTime base = LocalDateTime.of(2019, 5, 1, 10, 0);
+        List<Thread> terminals = new java.util.ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int offset = t * 250;
+            terminals.add(new Thread(() -> {
+                for (int i = 0; i < 250; i++) {
+                    String id = String.format("TC%04d", offset + i);
+                    repo.saveTransaction(new TransactionHeader(id, base.plusMinutes(offset + i), "MB001", "MEMBER",
+                            1.0, "CASH"), List.of(new TransactionItem(id, 1, "P001", "M", 1, 1.0)));
+                }
+            }));
+        }
+        terminals.forEach(Thread::start);
+        for (Thread t : terminals) {
+            t.join();
+        }
+        assertEquals(1000, repo.findAllHeaders().size());
+        assertEquals(1000, repo.summarizeSales(base.toLocalDate(), null).getTransactionCount());
+        assertEquals(1, repo.findItemsByTransaction("TC0999").size());
+        assertEquals(1000, repo.findItemsByTransactions(
+                repo.findAllHeaders().stream().map(TransactionHeader::getTransactionId).toList()).size());
+    }
+}
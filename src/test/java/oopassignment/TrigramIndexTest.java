@@ -0,0 +1,34 @@
+package oopassignment;
+
+import java.util.Set;
+import oopassignment.util.TrigramIndex;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TrigramIndexTest {
+
+    @Test
+    public void candidatesShareEveryTrigramOfTheQuery() {
+        TrigramIndex index = new TrigramIndex();
+        index.add("1", "John Smith");
+        index.add("2", "Mary Johnson");
+        index.add("3", "Alex Member");
+
+        assertEquals(Set.of("1", "2"), index.candidates("JOHN"));
+        assertEquals(Set.of("3"), index.candidates("member"));
+        assertTrue(index.candidates("zzz").isEmpty());
+        assertNull("Too short to look up", index.candidates("jo"));
+    }
+
+    @Test
+    public void removeDropsOnlyThatKey() {
+        TrigramIndex index = new TrigramIndex();
+        index.add("1", "John Smith");
+        index.add("2", "Johnny Tan");
+        index.remove("1", "John Smith");
+
+        assertEquals(Set.of("2"), index.candidates("john"));
+        assertTrue(index.candidates("smith").isEmpty());
+    }
+}
@@ -0,0 +1,132 @@
+package oopassignment.repository.impl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import oopassignment.config.Database;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * EXPLAIN QUERY PLAN checks that the hot lookups seek an index instead of scanning a table. Plans are taken from
+ * the SQL the repositories run, so an edit that loses an index (e.g. dropping COLLATE NOCASE) fails here
+ * (only run if database is available)
+ */
+public class QueryPlanTest {
+
+    @Test
+    public void stockQuantityLookupUsesCoveringIndex() throws Exception {
+        if (!Database.isAvailable()) return;
+
+        List<String> plan = explain(JdbcStockRepository.QUANTITY_SQL, "p001", "m");
+        assertNoTableScan(plan);
+        assertTrue("Quantity should come from the index alone: " + plan,
+                plan.stream().anyMatch(d -> d.contains("COVERING INDEX idx_stock_product_size_nocase")));
+    }
+
+    @Test
+    public void stockByProductLookupUsesIndex() throws Exception {
+        if (!Database.isAvailable()) return;
+
+        assertNoTableScan(explain(JdbcStockRepository.FIND_BY_PRODUCT_SQL, "p001"));
+        assertNoTableScan(explain(JdbcStockRepository.TOTAL_QUANTITY_SQL, "p001"));
+    }
+
+    @Test
+    public void stockBulkLookupUsesIndex() throws Exception {
+        if (!Database.isAvailable()) return;
+
+        assertNoTableScan(explain(JdbcStockRepository.findByProductIdsSql(2), "p001", "p002"));
+    }
+
+    @Test
+    public void transactionHeaderDateRangeUsesIndex() throws Exception {
+        if (!Database.isAvailable()) return;
+
+        List<String> params = new ArrayList<>();
+        String sql = JdbcTransactionRepository.headersBetweenSql(
+                LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31), params);
+        List<String> plan = explain(sql, params.toArray(new String[0]));
+        assertNoTableScan(plan);
+        assertTrue(plan.toString(), plan.stream().anyMatch(d -> d.contains("idx_transaction_header_datetime")));
+    }
+
+    @Test
+    public void dailySalesRangeSeeksRollupKey() throws Exception {
+        if (!Database.isAvailable()) return;
+
+        List<String> params = new ArrayList<>();
+        String sql = JdbcTransactionRepository.summarizeSalesSql(
+                LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31), params);
+        List<String> plan = explain(sql, params.toArray(new String[0]));
+        assertNoTableScan(plan);
+        assertTrue(plan.toString(), plan.stream().anyMatch(d -> d.contains("PRIMARY KEY (sale_date>? AND sale_date<?)")));
+    }
+
+    @Test
+    public void transactionHeaderByMemberUsesIndex() throws Exception {
+        if (!Database.isAvailable()) return;
+
+        List<String> plan = explain(JdbcTransactionRepository.MEMBER_FIRST_PAGE_SQL, "MB001", "20");
+        assertNoTableScan(plan);
+        assertTrue(plan.toString(), plan.stream().anyMatch(d -> d.contains("idx_transaction_header_member")));
+        assertFalse("Index order should satisfy ORDER BY", plan.stream().anyMatch(d -> d.contains("TEMP B-TREE")));
+    }
+
+    @Test
+    public void memberKeysetPageReadsIndexInOrder() throws Exception {
+        if (!Database.isAvailable()) return;
+
+        List<String> plan = explain(JdbcTransactionRepository.MEMBER_NEXT_PAGE_SQL,
+                "MB001", "2024-01-01T10:00", "T0001", "20");
+        assertNoTableScan(plan);
+        assertTrue(plan.toString(), plan.stream().anyMatch(d -> d.contains("idx_transaction_header_member_keyset")));
+        assertFalse("Keyset order should come from the index", plan.stream().anyMatch(d -> d.contains("TEMP B-TREE")));
+    }
+
+    @Test
+    public void memberNameSearchUsesFullTextIndex() throws Exception {
+        if (!Database.isAvailable()) return;
+
+        List<String> plan = explain(JdbcMemberRepository.SEARCH_FTS_SQL, "\"john\"", "50");
+        assertTrue("Search should be answered by the FTS5 index: " + plan,
+                plan.stream().anyMatch(d -> d.contains("VIRTUAL TABLE INDEX") && d.contains(":M")));
+        assertTrue("Members are fetched by rowid: " + plan,
+                plan.stream().anyMatch(d -> d.startsWith("SEARCH m USING INTEGER PRIMARY KEY")));
+    }
+
+    @Test
+    public void transactionItemLookupsUseIndex() throws Exception {
+        if (!Database.isAvailable()) return;
+
+        assertNoTableScan(explain(JdbcTransactionRepository.ITEMS_BY_TRANSACTION_SQL, "T0001"));
+        assertNoTableScan(explain(JdbcTransactionRepository.findItemsByTransactionsSql(2), "T0001", "T0002"));
+    }
+
+    private List<String> explain(String sql, String... params) throws Exception {
+        List<String> details = new ArrayList<>();
+        try (Connection conn = Database.getConnection();
+             PreparedStatement ps = conn.prepareStatement("EXPLAIN QUERY PLAN " + sql)) {
+            for (int i = 0; i < params.length; i++) {
+                ps.setString(i + 1, params[i]);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    details.add(rs.getString("detail"));
+                }
+            }
+        }
+        assertFalse("Query plan should not be empty", details.isEmpty());
+        return details;
+    }
+
+    private void assertNoTableScan(List<String> plan) {
+        for (String detail : plan) {
+            assertFalse("Unexpected table scan: " + plan, detail.startsWith("SCAN "));
+        }
+    }
+}